@@ -0,0 +1,126 @@
+package events;
+
+import vehicles.Vehicle;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands events to a background writer that formats them in batches and writes each
+// batch with a single print, so publishing threads never wait on stdout.
+// Publishers only block if the queue is full, which keeps memory bounded without losing messages.
+// Once closed, events are written on the publishing thread instead.
+public class AsyncConsoleEventSink implements FleetEventListener, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int MAX_BATCH = 4096;
+
+    private final BlockingQueue<FleetEvent> queue;
+    private final PrintStream out;
+    private final Thread writer;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile boolean closed;
+
+    public AsyncConsoleEventSink() {
+        this(System.out, DEFAULT_CAPACITY);
+    }
+
+    public AsyncConsoleEventSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drainLoop, "fleet-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void onEvent(FleetEventType type, Vehicle vehicle, double amount) {
+        if (type != FleetEventType.FUEL_CONSUMED) publish(new FleetEvent(type, vehicle, amount));
+    }
+
+    @Override
+    public void onBatch(FleetEventType type, int vehicles, double totalAmount) {
+        if (type != FleetEventType.FUEL_CONSUMED) publish(FleetEvent.batch(type, vehicles, totalAmount));
+    }
+
+    private void publish(FleetEvent event) {
+        published.incrementAndGet();
+        if (closed) {
+            write(List.of(event));
+            return;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            published.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Closed meanwhile: the writer may already have stopped
+        if (closed) drainRemaining();
+    }
+
+    // Waits until everything published so far has been written
+    public void flush() throws InterruptedException {
+        long target = published.get();
+        while (written.get() < target && writer.isAlive()) Thread.sleep(1);
+        if (written.get() < target) drainRemaining();
+        out.flush();
+    }
+
+    // Writes what is still queued; later events are written as they are published
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainRemaining();
+        out.flush();
+    }
+
+    private void drainRemaining() {
+        List<FleetEvent> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) write(rest);
+    }
+
+    private void write(List<FleetEvent> events) {
+        StringBuilder sb = new StringBuilder(events.size() * 48);
+        for (FleetEvent e : events) {
+            e.describe(sb);
+            sb.append(System.lineSeparator());
+        }
+        out.print(sb);
+        written.addAndGet(events.size());
+    }
+
+    private void drainLoop() {
+        List<FleetEvent> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder sb = new StringBuilder(MAX_BATCH * 48);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                FleetEvent first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (FleetEvent e : batch) {
+                    e.describe(sb);
+                    sb.append(System.lineSeparator());
+                }
+                out.print(sb);
+                written.addAndGet(batch.size());
+                sb.setLength(0);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package events;
+
+import vehicles.Vehicle;
+
+import java.io.PrintStream;
+
+// Prints each event on the calling thread, exactly as the vehicles used to
+public class ConsoleEventSink implements FleetEventListener {
+    private final PrintStream out;
+
+    public ConsoleEventSink() {
+        this(System.out);
+    }
+
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onEvent(FleetEventType type, Vehicle vehicle, double amount) {
+        if (type == FleetEventType.FUEL_CONSUMED) return;
+        StringBuilder sb = new StringBuilder(64);
+        new FleetEvent(type, vehicle, amount).describe(sb);
+        out.println(sb);
+    }
+
+    @Override
+    public void onBatch(FleetEventType type, int vehicles, double totalAmount) {
+        if (type == FleetEventType.FUEL_CONSUMED) return;
+        StringBuilder sb = new StringBuilder(64);
+        FleetEvent.batch(type, vehicles, totalAmount).describe(sb);
+        out.println(sb);
+    }
+}
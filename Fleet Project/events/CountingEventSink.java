@@ -0,0 +1,53 @@
+package events;
+
+import vehicles.Vehicle;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts events and sums their amounts per type without formatting anything
+public class CountingEventSink implements FleetEventListener {
+    private final LongAdder[] counts = new LongAdder[FleetEventType.values().length];
+    private final DoubleAdder[] amounts = new DoubleAdder[FleetEventType.values().length];
+
+    public CountingEventSink() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+            amounts[i] = new DoubleAdder();
+        }
+    }
+
+    @Override
+    public void onEvent(FleetEventType type, Vehicle vehicle, double amount) {
+        counts[type.ordinal()].increment();
+        amounts[type.ordinal()].add(amount);
+    }
+
+    // Counted as if each vehicle had reported on its own
+    @Override
+    public void onBatch(FleetEventType type, int vehicles, double totalAmount) {
+        counts[type.ordinal()].add(vehicles);
+        amounts[type.ordinal()].add(totalAmount);
+    }
+
+    public long count(FleetEventType type) {
+        return counts[type.ordinal()].sum();
+    }
+
+    public double totalAmount(FleetEventType type) {
+        return amounts[type.ordinal()].sum();
+    }
+
+    public long total() {
+        long n = 0;
+        for (LongAdder c : counts) n += c.sum();
+        return n;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            amounts[i].reset();
+        }
+    }
+}
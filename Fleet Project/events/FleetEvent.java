@@ -0,0 +1,146 @@
+package events;
+
+import interfaces.CargoCarrier;
+import interfaces.PassengerCarrier;
+import vehicles.AirVehicle;
+import vehicles.Vehicle;
+import vehicles.WaterVehicle;
+
+// One vehicle state change, captured so it can be described later on another thread.
+// level is the cargo or passenger count right after the change, where that applies.
+public final class FleetEvent {
+    private final FleetEventType type;
+    private final Vehicle vehicle;
+    private final double amount;
+    private final double level;
+    // Number of vehicles for a bulk summary (vehicle is then null), 0 for a single change
+    private final int vehicles;
+
+    public FleetEvent(FleetEventType type, Vehicle vehicle, double amount) {
+        this.type = type;
+        this.vehicle = vehicle;
+        this.amount = amount;
+        this.level = levelOf(type, vehicle);
+        this.vehicles = 0;
+    }
+
+    private FleetEvent(FleetEventType type, int vehicles, double totalAmount) {
+        this.type = type;
+        this.vehicle = null;
+        this.amount = totalAmount;
+        this.level = 0;
+        this.vehicles = vehicles;
+    }
+
+    public static FleetEvent batch(FleetEventType type, int vehicles, double totalAmount) {
+        return new FleetEvent(type, vehicles, totalAmount);
+    }
+
+    public boolean isBatch() {
+        return vehicle == null;
+    }
+
+    public int getVehicleCount() {
+        return isBatch() ? vehicles : 1;
+    }
+
+    public FleetEventType getType() {
+        return type;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    // Appends the console message for this event; nothing for events that never had one
+    public void describe(StringBuilder out) {
+        if (isBatch()) {
+            describeBatch(out);
+            return;
+        }
+        switch (type) {
+            case MOVED:
+                if (vehicle instanceof AirVehicle) {
+                    out.append("Flying at ").append(((AirVehicle) vehicle).getMaxAltitude())
+                            .append(" meters for ").append(amount).append(" km.");
+                } else if (vehicle instanceof WaterVehicle) {
+                    out.append("Sailing with cargo for ").append(amount).append(" km.");
+                } else {
+                    out.append("Drove on road for ").append(amount).append(" km");
+                }
+                break;
+            case REFUELED:
+                out.append("Refueled ").append(amount).append(" liters in the fuel tank.");
+                break;
+            case CARGO_LOADED:
+            case CARGO_UNLOADED:
+                out.append(type == FleetEventType.CARGO_LOADED ? "Loaded " : "Unloaded ").append(amount)
+                        .append(" kg. Current cargo: ").append(level)
+                        .append(" / ").append(((CargoCarrier) vehicle).getCargoCapacity());
+                break;
+            case PASSENGERS_BOARDED:
+            case PASSENGERS_DISEMBARKED:
+                out.append((int) amount).append(type == FleetEventType.PASSENGERS_BOARDED
+                                ? " passengers boarded. Current passengers: " : " passengers disembarked. Current passengers: ")
+                        .append((int) level);
+                break;
+            case MAINTENANCE_SCHEDULED:
+                out.append("Maintenance scheduled.");
+                break;
+            case MAINTENANCE_PERFORMED:
+                out.append("Maintenance completed. Vehicle is now ready for use.");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void describeBatch(StringBuilder out) {
+        switch (type) {
+            case MOVED:
+                out.append(vehicles).append(" vehicles travelled ").append(amount).append(" km in total.");
+                break;
+            case REFUELED:
+                out.append("Refueled ").append(vehicles).append(" vehicles with ").append(amount).append(" liters in total.");
+                break;
+            case CARGO_LOADED:
+                out.append("Loaded ").append(amount).append(" kg onto ").append(vehicles).append(" vehicles.");
+                break;
+            case CARGO_UNLOADED:
+                out.append("Unloaded ").append(amount).append(" kg from ").append(vehicles).append(" vehicles.");
+                break;
+            case PASSENGERS_BOARDED:
+                out.append((long) amount).append(" passengers boarded ").append(vehicles).append(" vehicles.");
+                break;
+            case PASSENGERS_DISEMBARKED:
+                out.append((long) amount).append(" passengers disembarked from ").append(vehicles).append(" vehicles.");
+                break;
+            case MAINTENANCE_SCHEDULED:
+                out.append("Maintenance scheduled for ").append(vehicles).append(" vehicles.");
+                break;
+            case MAINTENANCE_PERFORMED:
+                out.append("Maintenance completed on ").append(vehicles).append(" vehicles.");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static double levelOf(FleetEventType type, Vehicle v) {
+        if (v == null) return 0;
+        switch (type) {
+            case CARGO_LOADED:
+            case CARGO_UNLOADED:
+                return ((CargoCarrier) v).getCurrentCargo();
+            case PASSENGERS_BOARDED:
+            case PASSENGERS_DISEMBARKED:
+                return ((PassengerCarrier) v).getCurrentPassengers();
+            default:
+                return 0;
+        }
+    }
+}
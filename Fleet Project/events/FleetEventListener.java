@@ -0,0 +1,14 @@
+package events;
+
+import vehicles.Vehicle;
+
+// Told about every state change of a vehicle, after the change has been applied.
+// amount is the distance, litres, kilograms or passenger count involved (0 for maintenance).
+public interface FleetEventListener {
+    void onEvent(FleetEventType type, Vehicle vehicle, double amount);
+
+    // One summary for a bulk operation that changed 'vehicles' vehicles by 'totalAmount' in all.
+    // The per-vehicle events of such an operation are not sent to the process-wide sink.
+    default void onBatch(FleetEventType type, int vehicles, double totalAmount) {
+    }
+}
@@ -0,0 +1,13 @@
+package events;
+
+public enum FleetEventType {
+    MOVED,
+    REFUELED,
+    FUEL_CONSUMED,
+    CARGO_LOADED,
+    CARGO_UNLOADED,
+    PASSENGERS_BOARDED,
+    PASSENGERS_DISEMBARKED,
+    MAINTENANCE_SCHEDULED,
+    MAINTENANCE_PERFORMED
+}
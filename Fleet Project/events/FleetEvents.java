@@ -0,0 +1,42 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Process-wide sink that every vehicle publishes its state changes to.
+// Defaults to ConsoleEventSink so the CLI prints what it always has; batch jobs can
+// swap in NoOpEventSink, AsyncConsoleEventSink or CountingEventSink.
+public final class FleetEvents {
+    private FleetEvents() {}
+
+    private static volatile FleetEventListener sink = new ConsoleEventSink();
+
+    // Bulk operations mute the sink for their own thread and report one onBatch instead.
+    // The counter lets publishers skip the thread-local lookup while no batch is running.
+    private static final ThreadLocal<int[]> batchDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private static final AtomicInteger activeBatches = new AtomicInteger();
+
+    public static FleetEventListener sink() {
+        return sink;
+    }
+
+    public static void setSink(FleetEventListener newSink) {
+        sink = newSink == null ? NoOpEventSink.INSTANCE : newSink;
+    }
+
+    public static void beginBatch() {
+        batchDepth.get()[0]++;
+        activeBatches.incrementAndGet();
+    }
+
+    public static void endBatch() {
+        int[] depth = batchDepth.get();
+        if (depth[0] == 0) throw new IllegalStateException("endBatch without beginBatch");
+        depth[0]--;
+        activeBatches.decrementAndGet();
+    }
+
+    // True while the calling thread is inside beginBatch/endBatch
+    public static boolean inBatch() {
+        return activeBatches.get() > 0 && batchDepth.get()[0] > 0;
+    }
+}
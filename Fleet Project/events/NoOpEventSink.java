@@ -0,0 +1,13 @@
+package events;
+
+import vehicles.Vehicle;
+
+public final class NoOpEventSink implements FleetEventListener {
+    public static final NoOpEventSink INSTANCE = new NoOpEventSink();
+
+    private NoOpEventSink() {}
+
+    @Override
+    public void onEvent(FleetEventType type, Vehicle vehicle, double amount) {
+    }
+}
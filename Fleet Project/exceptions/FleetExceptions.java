@@ -0,0 +1,18 @@
+package exceptions;
+
+// Filling in a stack trace dominates the cost of the fleet exceptions. Batch callers that
+// only look at the message can switch it off; the try* methods avoid exceptions entirely.
+public final class FleetExceptions {
+
+    private static volatile boolean stackTraces = true;
+
+    private FleetExceptions() {}
+
+    public static boolean stackTracesEnabled() {
+        return stackTraces;
+    }
+
+    public static void setStackTracesEnabled(boolean enabled) {
+        stackTraces = enabled;
+    }
+}
@@ -2,6 +2,6 @@ package exceptions;
 
 public class InsufficientFuelException extends Exception {
    public InsufficientFuelException(String error){
-      super(error);
+      super(error, null, true, FleetExceptions.stackTracesEnabled());
    }
 }
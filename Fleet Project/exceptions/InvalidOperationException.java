@@ -2,6 +2,6 @@ package exceptions;
 
 public class InvalidOperationException extends Exception {
     public InvalidOperationException(String error){
-        super(error);
+        super(error, null, true, FleetExceptions.stackTracesEnabled());
     }
 }
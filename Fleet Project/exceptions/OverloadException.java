@@ -2,6 +2,6 @@ package exceptions;
 
 public class OverloadException extends Exception {
     public OverloadException(String error){
-        super(error);
+        super(error, null, true, FleetExceptions.stackTracesEnabled());
     }
 }
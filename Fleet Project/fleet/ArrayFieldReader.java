@@ -0,0 +1,37 @@
+package fleet;
+
+// FieldReader over an already split line
+final class ArrayFieldReader implements FieldReader {
+    private final String[] parts;
+
+    ArrayFieldReader(String[] parts) {
+        this.parts = parts;
+    }
+
+    @Override
+    public int fieldCount() {
+        return parts.length;
+    }
+
+    @Override
+    public String text(int idx) {
+        if (idx >= parts.length) throw new IllegalArgumentException("Missing field " + idx);
+        return parts[idx];
+    }
+
+    @Override
+    public double parseDouble(int idx, double def) {
+        try { return Double.parseDouble(parts[idx]); } catch (Exception e) { return def; }
+    }
+
+    @Override
+    public int parseInt(int idx, int def) {
+        try { return Integer.parseInt(parts[idx]); } catch (Exception e) { return def; }
+    }
+
+    @Override
+    public boolean parseBoolean(int idx, boolean def) {
+        if (idx >= parts.length) return def;
+        return Boolean.parseBoolean(parts[idx]);
+    }
+}
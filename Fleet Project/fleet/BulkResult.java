@@ -0,0 +1,65 @@
+package fleet;
+
+import events.FleetEventType;
+import interfaces.OperationStatus;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Aggregated outcome of one bulk operation: how many vehicles matched the filter,
+// how many were changed and by how much in total, and which ones refused.
+public final class BulkResult {
+    private final FleetEventType operation;
+    private final int matched;
+    private final int changed;
+    private final double totalAmount;
+    private final Map<String, OperationStatus> failures;
+    private final long elapsedNanos;
+
+    BulkResult(FleetEventType operation, int matched, int changed, double totalAmount,
+               Map<String, OperationStatus> failures, long elapsedNanos) {
+        this.operation = operation;
+        this.matched = matched;
+        this.changed = changed;
+        this.totalAmount = totalAmount;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public FleetEventType getOperation() {
+        return operation;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    // Matched vehicles that needed no change (already full, empty or serviced)
+    public int getUnchanged() {
+        return matched - changed - failures.size();
+    }
+
+    // Litres, kilograms or passengers moved in total
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    // Vehicle ID to the reason it refused, in the order they were visited
+    public Map<String, OperationStatus> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d matched, %d changed, %d failed, total %.2f in %.1f ms",
+                operation, matched, changed, failures.size(), totalAmount, elapsedNanos / 1e6);
+    }
+}
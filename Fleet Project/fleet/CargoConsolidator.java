@@ -0,0 +1,353 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import vehicles.Airplane;
+import vehicles.CargoShip;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Packs a list of shipments into the spare cargo capacity of the fleet's CargoCarriers.
+//
+// Shipments are placed heaviest first, each on the vehicle with the least spare capacity that
+// still takes it whole (best fit decreasing). A divisible shipment that fits nowhere whole is
+// split across the emptiest vehicles of the types that accept part loads, in pieces no smaller
+// than that type's minimum; whatever cannot be placed is reported as unplaced.
+//
+// Spare capacity is indexed per vehicle type in 65536 buckets with a bitmap of the non-empty
+// ones, so finding the best fit is a nextSetBit call instead of a search over the fleet
+// (best fit to within one bucket, under a kilogram for a 50 t ship). planParallel deals the
+// vehicles and shipments round-robin into partitions solved on separate threads, then places
+// what they left over against the capacity that remains. The plan changes nothing until
+// ConsolidationPlan.apply() loads it through the manager.
+public final class CargoConsolidator {
+
+    private static final int BUCKETS = 1 << 16;
+    // Capacity kept back per vehicle so that summed pieces never overshoot by a rounding error
+    private static final double MARGIN = 1e-9;
+
+    private final FleetManager fleet;
+    // Vehicle class -> smallest piece it accepts of a split shipment; absent means whole shipments only
+    private final Map<Class<?>, Double> minPiece = new HashMap<>();
+
+    public CargoConsolidator(FleetManager fleet) {
+        this.fleet = fleet;
+        // Buses carry parcels in the luggage hold, so they only take whole shipments
+        minPiece.put(Truck.class, 100.0);
+        minPiece.put(Airplane.class, 50.0);
+        minPiece.put(CargoShip.class, 1000.0);
+    }
+
+    // Lets divisible shipments be split onto this type (and its subclasses) in pieces of at least minPieceKg
+    public void allowSplitting(Class<? extends Vehicle> type, double minPieceKg) {
+        if (!(minPieceKg > 0)) throw new IllegalArgumentException("Minimum piece must be positive");
+        minPiece.put(type, minPieceKg);
+    }
+
+    public void disallowSplitting(Class<? extends Vehicle> type) {
+        minPiece.put(type, Double.POSITIVE_INFINITY);
+    }
+
+    public ConsolidationPlan plan(List<Shipment> shipments) {
+        return plan(shipments, null, 1);
+    }
+
+    public ConsolidationPlan planParallel(List<Shipment> shipments) {
+        return plan(shipments, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    // The same shipments, fleet and partition count always give the same plan
+    public ConsolidationPlan plan(List<Shipment> shipments, ExecutorService executor, int partitions) {
+        long start = System.nanoTime();
+        Solver solver = new Solver(shipments);
+        int parts = executor == null ? 1 : Math.max(1, Math.min(partitions, Math.min(solver.free.length, solver.order.length)));
+        List<Pieces> results = new ArrayList<>();
+        if (parts == 1) {
+            results.add(solver.solve(0, 1));
+        } else {
+            List<Future<Pieces>> futures = new ArrayList<>();
+            for (int p = 0; p < parts; p++) {
+                int part = p;
+                futures.add(executor.submit(() -> solver.solve(part, parts)));
+            }
+            for (Future<Pieces> f : futures) results.add(join(f));
+            results.add(solver.leftovers(results));
+        }
+        Pieces all = Pieces.concat(results);
+        double[] unplaced = new double[solver.order.length];
+        for (int i = 0; i < all.leftCount; i++) unplaced[all.leftShipment[i]] = all.leftKg[i];
+        return new ConsolidationPlan(fleet, solver.carriers, solver.order, all.shipment, all.slot, all.kg,
+                all.count, unplaced, System.nanoTime() - start);
+    }
+
+    private double minPieceFor(Class<?> cls) {
+        for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+            Double m = minPiece.get(c);
+            if (m != null) return m;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static <T> T join(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Consolidation partition failed", e.getCause());
+        }
+    }
+
+    // State shared by the partitions of one plan. Partitions own disjoint vehicle slots,
+    // so they update free[] without coordination.
+    private final class Solver {
+        final Vehicle[] carriers;
+        final double[] free;
+        // Vehicle slot -> type group; group -> smallest accepted piece
+        final int[] group;
+        final double[] groupMinPiece;
+        // Smallest piece any group accepts; a split never leaves a remainder below it
+        final double smallestPiece;
+        final Shipment[] order;
+
+        Solver(List<Shipment> shipments) {
+            List<Vehicle> list = new ArrayList<>();
+            for (Vehicle v : fleet.listAll()) {
+                if (v instanceof CargoCarrier) list.add(v);
+            }
+            carriers = list.toArray(new Vehicle[0]);
+            free = new double[carriers.length];
+            group = new int[carriers.length];
+            Map<Class<?>, Integer> groups = new LinkedHashMap<>();
+            for (int s = 0; s < carriers.length; s++) {
+                CargoCarrier c = (CargoCarrier) carriers[s];
+                double capacity = c.getCargoCapacity();
+                free[s] = Math.max(0, capacity - c.getCurrentCargo() - capacity * MARGIN);
+                Integer g = groups.get(carriers[s].getClass());
+                if (g == null) {
+                    g = groups.size();
+                    groups.put(carriers[s].getClass(), g);
+                }
+                group[s] = g;
+            }
+            groupMinPiece = new double[groups.size()];
+            for (Map.Entry<Class<?>, Integer> e : groups.entrySet()) groupMinPiece[e.getValue()] = minPieceFor(e.getKey());
+            double smallest = Double.POSITIVE_INFINITY;
+            for (double m : groupMinPiece) smallest = Math.min(smallest, m);
+            smallestPiece = smallest;
+            order = shipments.toArray(new Shipment[0]);
+            // Stable, so equal weights keep their input order
+            Arrays.parallelSort(order, (a, b) -> Double.compare(b.getWeight(), a.getWeight()));
+        }
+
+        // Vehicles s and shipments i with s % parts == part and i % parts == part
+        Pieces solve(int part, int parts) {
+            CapacityIndex[] index = indexes(part, parts);
+            Pieces out = new Pieces();
+            for (int i = part; i < order.length; i += parts) {
+                double left = place(index, i, order[i].getWeight(), out);
+                if (left > 0) out.leftover(i, left);
+            }
+            return out;
+        }
+
+        // Second pass over what the partitions could not place, against all remaining capacity
+        Pieces leftovers(List<Pieces> parts) {
+            int n = 0;
+            for (Pieces p : parts) n += p.leftCount;
+            int[] pending = new int[n];
+            double[] kg = new double[order.length];
+            int k = 0;
+            for (Pieces p : parts) {
+                for (int j = 0; j < p.leftCount; j++) {
+                    pending[k++] = p.leftShipment[j];
+                    kg[p.leftShipment[j]] = p.leftKg[j];
+                }
+            }
+            Arrays.sort(pending);
+            CapacityIndex[] index = indexes(0, 1);
+            Pieces out = new Pieces();
+            for (int i : pending) {
+                double left = place(index, i, kg[i], out);
+                if (left > 0) out.leftover(i, left);
+            }
+            return out;
+        }
+
+        private CapacityIndex[] indexes(int part, int parts) {
+            double[] max = new double[groupMinPiece.length];
+            for (int s = part; s < free.length; s += parts) max[group[s]] = Math.max(max[group[s]], free[s]);
+            CapacityIndex[] index = new CapacityIndex[groupMinPiece.length];
+            for (int g = 0; g < index.length; g++) index[g] = new CapacityIndex(free, max[g]);
+            for (int s = part; s < free.length; s += parts) {
+                if (free[s] > 0) index[group[s]].add(s);
+            }
+            return index;
+        }
+
+        // Places kg of shipment i; returns what is left unplaced
+        private double place(CapacityIndex[] index, int i, double kg, Pieces out) {
+            double left = kg;
+            while (left > 0) {
+                // What is left of a split shipment is a piece too, so it only goes where pieces are accepted
+                boolean piece = left < order[i].getWeight();
+                int best = -1;
+                for (int g = 0; g < index.length; g++) {
+                    if (piece && left < groupMinPiece[g]) continue;
+                    int s = index[g].ceiling(left);
+                    if (s >= 0 && (best < 0 || free[s] < free[best])) best = s;
+                }
+                if (best >= 0) {
+                    take(index, best, left, i, out);
+                    return 0;
+                }
+                if (!order[i].isDivisible()) return left;
+                // Fits nowhere whole: fill the emptiest vehicle that accepts a part load
+                int split = -1;
+                for (int g = 0; g < index.length; g++) {
+                    int s = index[g].largest();
+                    if (s >= 0 && Math.min(free[s], left) >= groupMinPiece[g] && (split < 0 || free[s] > free[split])) split = s;
+                }
+                if (split < 0) return left;
+                double min = groupMinPiece[group[split]];
+                double kgHere = Math.min(free[split], left);
+                // Leave a remainder big enough to be a piece somewhere, if this piece can spare it
+                if (left - kgHere > 0 && left - kgHere < smallestPiece && left - smallestPiece >= min) {
+                    kgHere = left - smallestPiece;
+                }
+                take(index, split, kgHere, i, out);
+                left -= kgHere;
+            }
+            return 0;
+        }
+
+        private void take(CapacityIndex[] index, int s, double kg, int shipment, Pieces out) {
+            CapacityIndex idx = index[group[s]];
+            idx.remove(s);
+            free[s] = Math.max(0, free[s] - kg);
+            if (free[s] > 0) idx.add(s);
+            out.add(shipment, s, kg);
+        }
+    }
+
+    // Vehicle slots bucketed by spare capacity. Bucket b holds free values in [b*width, (b+1)*width),
+    // so any vehicle above bucket floor(kg / width) can take kg.
+    private static final class CapacityIndex {
+        private final double[] free;
+        private final double width;
+        private final int[][] buckets = new int[BUCKETS][];
+        private final int[] sizes = new int[BUCKETS];
+        private final BitSet nonEmpty = new BitSet(BUCKETS);
+
+        CapacityIndex(double[] free, double maxFree) {
+            this.free = free;
+            this.width = Math.max(maxFree / (BUCKETS - 1), Double.MIN_NORMAL);
+        }
+
+        private int bucket(double f) {
+            return (int) Math.min(BUCKETS - 1, f / width);
+        }
+
+        void add(int s) {
+            int b = bucket(free[s]);
+            int[] slots = buckets[b];
+            if (slots == null) buckets[b] = slots = new int[4];
+            else if (sizes[b] == slots.length) buckets[b] = slots = Arrays.copyOf(slots, slots.length * 2);
+            slots[sizes[b]++] = s;
+            nonEmpty.set(b);
+        }
+
+        void remove(int s) {
+            int b = bucket(free[s]);
+            int[] slots = buckets[b];
+            int j = sizes[b] - 1;
+            while (slots[j] != s) j--;
+            slots[j] = slots[--sizes[b]];
+            if (sizes[b] == 0) nonEmpty.clear(b);
+        }
+
+        // A vehicle with the least spare capacity of at least kg (to within a bucket), or -1. Only
+        // some vehicles in the bucket kg falls in can take it, so that one is checked slot by slot.
+        int ceiling(double kg) {
+            double at = kg / width;
+            if (at >= BUCKETS) return -1;
+            int b = (int) at;
+            for (int j = sizes[b] - 1; j >= 0; j--) {
+                if (free[buckets[b][j]] >= kg) return buckets[b][j];
+            }
+            if (b == BUCKETS - 1) return -1;
+            b = nonEmpty.nextSetBit(b + 1);
+            return b < 0 ? -1 : buckets[b][sizes[b] - 1];
+        }
+
+        int largest() {
+            int b = nonEmpty.previousSetBit(BUCKETS - 1);
+            return b < 0 ? -1 : buckets[b][sizes[b] - 1];
+        }
+    }
+
+    // Growable columns of planned pieces (sorted shipment position, vehicle slot, kg) and of
+    // what was left over (shipment position, kg)
+    private static final class Pieces {
+        int[] shipment = new int[64];
+        int[] slot = new int[64];
+        double[] kg = new double[64];
+        int count;
+        int[] leftShipment = new int[16];
+        double[] leftKg = new double[16];
+        int leftCount;
+
+        void add(int i, int s, double w) {
+            if (count == shipment.length) {
+                shipment = Arrays.copyOf(shipment, count * 2);
+                slot = Arrays.copyOf(slot, count * 2);
+                kg = Arrays.copyOf(kg, count * 2);
+            }
+            shipment[count] = i;
+            slot[count] = s;
+            kg[count++] = w;
+        }
+
+        void leftover(int i, double w) {
+            if (leftCount == leftShipment.length) {
+                leftShipment = Arrays.copyOf(leftShipment, leftCount * 2);
+                leftKg = Arrays.copyOf(leftKg, leftCount * 2);
+            }
+            leftShipment[leftCount] = i;
+            leftKg[leftCount++] = w;
+        }
+
+        // Pieces from every part in order; leftovers only from the last, which is the final pass
+        static Pieces concat(List<Pieces> parts) {
+            Pieces out = new Pieces();
+            int n = 0;
+            for (Pieces p : parts) n += p.count;
+            out.shipment = new int[n];
+            out.slot = new int[n];
+            out.kg = new double[n];
+            for (Pieces p : parts) {
+                System.arraycopy(p.shipment, 0, out.shipment, out.count, p.count);
+                System.arraycopy(p.slot, 0, out.slot, out.count, p.count);
+                System.arraycopy(p.kg, 0, out.kg, out.count, p.count);
+                out.count += p.count;
+            }
+            Pieces last = parts.get(parts.size() - 1);
+            out.leftShipment = last.leftShipment;
+            out.leftKg = last.leftKg;
+            out.leftCount = last.leftCount;
+            return out;
+        }
+    }
+}
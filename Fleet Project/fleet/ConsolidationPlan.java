@@ -0,0 +1,162 @@
+package fleet;
+
+import events.FleetEventType;
+import events.FleetEvents;
+import exceptions.InvalidOperationException;
+import interfaces.CargoCarrier;
+import interfaces.OperationStatus;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Output of CargoConsolidator: which vehicle carries how much of which shipment. Nothing is
+// loaded until apply().
+public final class ConsolidationPlan {
+    private final FleetManager fleet;
+    private final Vehicle[] carriers;
+    private final Shipment[] shipments;
+    // One row per piece: index into shipments, index into carriers, kg
+    private final int[] pieceShipment;
+    private final int[] pieceVehicle;
+    private final double[] pieceKg;
+    private final int pieces;
+    // Per shipment, kg that found no room
+    private final double[] unplaced;
+    private final long elapsedNanos;
+    private boolean applied;
+
+    ConsolidationPlan(FleetManager fleet, Vehicle[] carriers, Shipment[] shipments, int[] pieceShipment,
+                      int[] pieceVehicle, double[] pieceKg, int pieces, double[] unplaced, long elapsedNanos) {
+        this.fleet = fleet;
+        this.carriers = carriers;
+        this.shipments = shipments;
+        this.pieceShipment = pieceShipment;
+        this.pieceVehicle = pieceVehicle;
+        this.pieceKg = pieceKg;
+        this.pieces = pieces;
+        this.unplaced = unplaced;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getShipmentCount() {
+        return shipments.length;
+    }
+
+    public int getPieceCount() {
+        return pieces;
+    }
+
+    public double getPlannedKg() {
+        double total = 0;
+        for (int p = 0; p < pieces; p++) total += pieceKg[p];
+        return total;
+    }
+
+    public double getUnplacedKg() {
+        double total = 0;
+        for (double kg : unplaced) total += kg;
+        return total;
+    }
+
+    // Shipments with some or all of their weight left out of the plan, heaviest first
+    public List<Shipment> getUnplacedShipments() {
+        List<Shipment> out = new ArrayList<>();
+        for (int i = 0; i < shipments.length; i++) {
+            if (unplaced[i] > 0) out.add(shipments[i]);
+        }
+        return out;
+    }
+
+    // Shipments spread over more than one vehicle
+    public int getSplitShipmentCount() {
+        int[] seen = new int[shipments.length];
+        int split = 0;
+        for (int p = 0; p < pieces; p++) {
+            if (++seen[pieceShipment[p]] == 2) split++;
+        }
+        return split;
+    }
+
+    // Planned kg per vehicle ID, in fleet order
+    public Map<String, Double> getLoads() {
+        double[] load = loadsBySlot();
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (int s = 0; s < carriers.length; s++) {
+            if (load[s] > 0) out.put(carriers[s].getId(), load[s]);
+        }
+        return out;
+    }
+
+    // Vehicle ID -> kg of the given shipment
+    public Map<String, Double> getAssignments(String shipmentId) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (int p = 0; p < pieces; p++) {
+            if (shipments[pieceShipment[p]].getId().equals(shipmentId)) {
+                out.merge(carriers[pieceVehicle[p]].getId(), pieceKg[p], Double::sum);
+            }
+        }
+        return out;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Loads each vehicle's planned total with one tryLoadCargo under the manager's vehicle lock.
+    // Vehicles whose load or membership changed since planning are reported as failures.
+    // The event sink gets one CARGO_LOADED summary.
+    public synchronized BulkResult apply() {
+        if (applied) throw new IllegalStateException("Plan already applied");
+        applied = true;
+        long start = System.nanoTime();
+        double[] load = loadsBySlot();
+        Map<String, OperationStatus> failures = new LinkedHashMap<>();
+        int matched = 0, changed = 0;
+        double total = 0;
+        FleetEvents.beginBatch();
+        try {
+            for (int s = 0; s < carriers.length; s++) {
+                double kg = load[s];
+                if (kg <= 0) continue;
+                matched++;
+                Vehicle planned = carriers[s];
+                String id = planned.getId();
+                OperationStatus status;
+                try {
+                    // A different vehicle under the same ID is not the one that was planned for
+                    status = fleet.withVehicle(id, v -> v == planned
+                            ? ((CargoCarrier) v).tryLoadCargo(kg) : OperationStatus.NOT_SUPPORTED);
+                } catch (InvalidOperationException e) {
+                    status = OperationStatus.NOT_SUPPORTED;
+                }
+                if (status == OperationStatus.OK) {
+                    changed++;
+                    total += kg;
+                } else {
+                    failures.put(id, status);
+                }
+            }
+        } finally {
+            FleetEvents.endBatch();
+        }
+        if (changed > 0) FleetEvents.sink().onBatch(FleetEventType.CARGO_LOADED, changed, total);
+        return new BulkResult(FleetEventType.CARGO_LOADED, matched, changed, total, failures, System.nanoTime() - start);
+    }
+
+    private double[] loadsBySlot() {
+        double[] load = new double[carriers.length];
+        for (int p = 0; p < pieces; p++) load[pieceVehicle[p]] += pieceKg[p];
+        return load;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Consolidation plan: %d shipments in %d pieces on %d vehicles, %.2f kg planned, "
+                        + "%d shipments split, %d not fully placed (%.2f kg), planned in %.1f ms",
+                shipments.length, pieces, getLoads().size(), getPlannedKg(), getSplitShipmentCount(),
+                getUnplacedShipments().size(), getUnplacedKg(), elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,15 @@
+package fleet;
+
+// Read-only view over the comma separated fields of one saved vehicle line.
+// Missing or malformed numeric fields fall back to the given default, as the loader always has.
+public interface FieldReader {
+    int fieldCount();
+
+    String text(int idx);
+
+    double parseDouble(int idx, double def);
+
+    int parseInt(int idx, int def);
+
+    boolean parseBoolean(int idx, boolean def);
+}
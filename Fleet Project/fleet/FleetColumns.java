@@ -0,0 +1,202 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import vehicles.Vehicle;
+
+import java.util.*;
+
+// Column-per-attribute copy of the fleet's numeric state. Rows are dense (0..size-1),
+// so fleet-wide sums and filters are plain loops over primitive arrays instead of
+// virtual calls on scattered Vehicle objects. Removal moves the last row into the gap.
+// FleetStatistics rebuilds the report totals from here when they go stale.
+class FleetColumns {
+
+    static final byte MAINTENANCE = 1;
+    static final byte FUEL = 2;
+    static final byte CARGO = 4;
+    static final byte PASSENGERS = 8;
+
+    private final Map<String, Integer> rowOf = new HashMap<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private final Map<Class<?>, Byte> tagOf = new HashMap<>();
+
+    private Vehicle[] vehicles = new Vehicle[64];
+    private double[] fuel = new double[64];
+    private double[] mileage = new double[64];
+    private double[] efficiency = new double[64];
+    private double[] cargo = new double[64];
+    private int[] passengers = new int[64];
+    // Bit set of the flags above
+    private byte[] flags = new byte[64];
+    private byte[] type = new byte[64];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(Vehicle v) {
+        if (size == fuel.length) grow();
+        int row = size++;
+        rowOf.put(v.getId(), row);
+        vehicles[row] = v;
+        type[row] = tagFor(v.getClass());
+        fill(row, v);
+    }
+
+    void remove(String id) {
+        Integer row = rowOf.remove(id);
+        if (row == null) return;
+        int last = --size;
+        if (row != last) {
+            vehicles[row] = vehicles[last];
+            fuel[row] = fuel[last];
+            mileage[row] = mileage[last];
+            efficiency[row] = efficiency[last];
+            cargo[row] = cargo[last];
+            passengers[row] = passengers[last];
+            flags[row] = flags[last];
+            type[row] = type[last];
+            rowOf.put(vehicles[row].getId(), row);
+        }
+        vehicles[last] = null;
+    }
+
+    // Re-reads the mutable state of a vehicle already in the store
+    void update(Vehicle v) {
+        Integer row = rowOf.get(v.getId());
+        if (row != null) fill(row, v);
+    }
+
+    void clear() {
+        Arrays.fill(vehicles, 0, size, null);
+        rowOf.clear();
+        size = 0;
+    }
+
+    private void fill(int row, Vehicle v) {
+        byte f = 0;
+        mileage[row] = v.getCurrentMileage();
+        efficiency[row] = v.calculateFuelEfficiency();
+        if (v instanceof FuelConsumable) {
+            f |= FUEL;
+            fuel[row] = ((FuelConsumable) v).getFuelLevel();
+        } else {
+            fuel[row] = 0;
+        }
+        if (v instanceof CargoCarrier) {
+            f |= CARGO;
+            cargo[row] = ((CargoCarrier) v).getCurrentCargo();
+        } else {
+            cargo[row] = 0;
+        }
+        if (v instanceof PassengerCarrier) {
+            f |= PASSENGERS;
+            passengers[row] = ((PassengerCarrier) v).getCurrentPassengers();
+        } else {
+            passengers[row] = 0;
+        }
+        if (v instanceof Maintainable && ((Maintainable) v).needsMaintenance()) f |= MAINTENANCE;
+        flags[row] = f;
+    }
+
+    private byte tagFor(Class<?> c) {
+        Byte tag = tagOf.get(c);
+        if (tag != null) return tag;
+        if (types.size() > Byte.MAX_VALUE) throw new IllegalStateException("Too many vehicle types");
+        byte t = (byte) types.size();
+        types.add(c);
+        tagOf.put(c, t);
+        return t;
+    }
+
+    private void grow() {
+        int n = fuel.length * 2;
+        vehicles = Arrays.copyOf(vehicles, n);
+        fuel = Arrays.copyOf(fuel, n);
+        mileage = Arrays.copyOf(mileage, n);
+        efficiency = Arrays.copyOf(efficiency, n);
+        cargo = Arrays.copyOf(cargo, n);
+        passengers = Arrays.copyOf(passengers, n);
+        flags = Arrays.copyOf(flags, n);
+        type = Arrays.copyOf(type, n);
+    }
+
+    // Aggregates: straight-line loops over one or two columns
+
+    double totalMileage() {
+        return sum(mileage);
+    }
+
+    double totalFuel() {
+        return sum(fuel);
+    }
+
+    double totalCargo() {
+        return sum(cargo);
+    }
+
+    double averageEfficiency() {
+        return size == 0 ? 0.0 : sum(efficiency) / size;
+    }
+
+    double efficiencySum() {
+        return sum(efficiency);
+    }
+
+    long totalPassengers() {
+        int[] p = passengers;
+        long total = 0;
+        for (int i = 0; i < size; i++) total += p[i];
+        return total;
+    }
+
+    int countWith(byte flag) {
+        byte[] f = flags;
+        int n = 0;
+        for (int i = 0; i < size; i++) n += (f[i] & flag) != 0 ? 1 : 0;
+        return n;
+    }
+
+    // Counts per concrete class, in the order the classes were first seen
+    Map<Class<?>, Integer> countByType() {
+        int[] counts = new int[types.size()];
+        byte[] t = type;
+        for (int i = 0; i < size; i++) counts[t[i]]++;
+        Map<Class<?>, Integer> out = new LinkedHashMap<>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) out.put(types.get(c), counts[c]);
+        }
+        return out;
+    }
+
+    // Row order, not fleet order
+    List<Vehicle> with(byte flag) {
+        List<Vehicle> out = new ArrayList<>();
+        byte[] f = flags;
+        for (int i = 0; i < size; i++) {
+            if ((f[i] & flag) != 0) out.add(vehicles[i]);
+        }
+        return out;
+    }
+
+    // Row order, not fleet order
+    List<Vehicle> belowFuel(double level) {
+        List<Vehicle> out = new ArrayList<>();
+        double[] fl = fuel;
+        byte[] f = flags;
+        for (int i = 0; i < size; i++) {
+            if ((f[i] & FUEL) != 0 && fl[i] < level) out.add(vehicles[i]);
+        }
+        return out;
+    }
+
+    private double sum(double[] column) {
+        double total = 0;
+        for (int i = 0; i < size; i++) total += column[i];
+        return total;
+    }
+}
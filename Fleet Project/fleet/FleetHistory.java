@@ -0,0 +1,252 @@
+package fleet;
+
+import events.FleetEventType;
+import exceptions.InvalidOperationException;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.PassengerCarrier;
+import vehicles.Vehicle;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Recent state of every vehicle, kept by FleetManager.enableHistory(). After each event the
+// vehicle's mileage, fuel, cargo and passengers go into a ring of the last `capacity` samples,
+// so memory is fixed per vehicle however long the fleet runs.
+//
+// Rings are 36-byte records in ByteBuffers of 1024 vehicles each, on or off the heap, with
+// one write counter per vehicle. A vehicle's ring is only written by whoever holds that
+// vehicle, and readers never lock: each ring has one spare record for the write in progress,
+// and readers drop whatever the counter shows was overwritten while they copied. That check
+// relies on two fences: the writer's count for one sample is visible before any write of the
+// next, and the reader's copies are done before it reads the count again.
+public final class FleetHistory {
+
+    private static final int CHUNK = 1024;
+    private static final int RECORD = 36;
+    private static final int MILEAGE = 8, FUEL = 16, CARGO = 24, PASSENGERS = 32;
+    private static final FleetEventType[] EVENTS = FleetEventType.values();
+
+    private final int capacity;
+    // Records per ring: capacity plus the spare
+    private final int ring;
+    private final boolean offHeap;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile ByteBuffer[] buffers = new ByteBuffer[0];
+    // Per slot: samples ever written to it since it was assigned
+    private volatile AtomicLongArray[] counts = new AtomicLongArray[0];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+    private final LongSupplier clock;
+
+    FleetHistory(int capacity, boolean offHeap, LongSupplier clock) {
+        if (capacity < 2 || capacity > 16384) throw new IllegalArgumentException("History must keep 2 to 16384 samples per vehicle");
+        this.capacity = capacity;
+        this.ring = capacity + 1;
+        this.offHeap = offHeap;
+        this.clock = clock;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    // Bytes reserved for rings so far
+    public long getMemoryBytes() {
+        return (long) buffers.length * CHUNK * ring * RECORD;
+    }
+
+    // Starts the vehicle's history with its current state
+    synchronized void add(Vehicle v) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot++;
+        if (slot / CHUNK >= buffers.length) grow();
+        counts[slot / CHUNK].set(slot % CHUNK, 0);
+        slots.put(v.getId(), slot);
+        record(null, v);
+    }
+
+    synchronized void remove(String id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) return;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    synchronized void clear() {
+        slots.clear();
+        freeCount = 0;
+        nextSlot = 0;
+    }
+
+    private void grow() {
+        int n = buffers.length + 1;
+        ByteBuffer[] b = Arrays.copyOf(buffers, n);
+        AtomicLongArray[] c = Arrays.copyOf(counts, n);
+        int bytes = CHUNK * ring * RECORD;
+        b[n - 1] = offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        c[n - 1] = new AtomicLongArray(CHUNK);
+        counts = c;
+        buffers = b;
+    }
+
+    // Called with the vehicle held, right after the change
+    void record(FleetEventType event, Vehicle v) {
+        Integer slot = slots.get(v.getId());
+        if (slot == null) return;
+        ByteBuffer buf = buffers[slot / CHUNK];
+        AtomicLongArray count = counts[slot / CHUNK];
+        int row = slot % CHUNK;
+        long n = count.get(row);
+        int at = offset(row, n);
+        // The lazySet that published sample n - 1 must not fall behind these writes, or a reader
+        // could take a half-overwritten oldest sample as intact
+        VarHandle.storeStoreFence();
+        buf.putLong(at, clock.getAsLong() << 8 | (event == null ? 0 : event.ordinal() + 1));
+        buf.putDouble(at + MILEAGE, v.getCurrentMileage());
+        buf.putDouble(at + FUEL, v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0);
+        buf.putDouble(at + CARGO, v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0);
+        buf.putInt(at + PASSENGERS, v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0);
+        // Publishes the record to readers
+        count.lazySet(row, n + 1);
+    }
+
+    private int offset(int row, long sample) {
+        return (row * ring + (int) (sample % ring)) * RECORD;
+    }
+
+    // Every retained sample, oldest first
+    public List<HistorySample> getSamples(String vehicleId) throws InvalidOperationException {
+        return getSamples(vehicleId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Samples taken in [fromMillis, toMillis), oldest first
+    public List<HistorySample> getSamples(String vehicleId, long fromMillis, long toMillis) throws InvalidOperationException {
+        Ring r = read(vehicleId);
+        List<HistorySample> out = new ArrayList<>();
+        for (int i = r.first(fromMillis); i < r.size && r.time(i) < toMillis; i++) out.add(r.sample(i));
+        return out;
+    }
+
+    // Time of the oldest retained sample; a window that starts earlier is only partly covered
+    public long getOldestMillis(String vehicleId) throws InvalidOperationException {
+        Ring r = read(vehicleId);
+        return r.size == 0 ? Long.MAX_VALUE : r.time(0);
+    }
+
+    // Kilometres covered in [fromMillis, toMillis), within what the ring still holds
+    public double getDistance(String vehicleId, long fromMillis, long toMillis) throws InvalidOperationException {
+        Ring r = read(vehicleId);
+        int start = Math.max(0, r.first(fromMillis) - 1);
+        int end = r.first(toMillis) - 1;
+        return end > start ? r.mileage[end] - r.mileage[start] : 0;
+    }
+
+    // Litres burned in [fromMillis, toMillis): every drop in fuel level, refuels not counted
+    public double getFuelBurned(String vehicleId, long fromMillis, long toMillis) throws InvalidOperationException {
+        Ring r = read(vehicleId);
+        int end = r.first(toMillis);
+        double burned = 0;
+        for (int i = Math.max(1, r.first(fromMillis)); i < end; i++) {
+            double drop = r.fuel[i - 1] - r.fuel[i];
+            if (drop > 0) burned += drop;
+        }
+        return burned;
+    }
+
+    // One sample per bucketMillis-wide bucket of [fromMillis, toMillis) that saw a change:
+    // the state after the last change in that bucket
+    public List<HistorySample> downsample(String vehicleId, long fromMillis, long toMillis, long bucketMillis)
+            throws InvalidOperationException {
+        if (bucketMillis <= 0) throw new IllegalArgumentException("Bucket width must be positive");
+        Ring r = read(vehicleId);
+        List<HistorySample> out = new ArrayList<>();
+        int end = r.first(toMillis);
+        for (int i = r.first(fromMillis); i < end; i++) {
+            long bucket = (r.time(i) - fromMillis) / bucketMillis;
+            if (i + 1 == end || (r.time(i + 1) - fromMillis) / bucketMillis != bucket) out.add(r.sample(i));
+        }
+        return out;
+    }
+
+    private Ring read(String vehicleId) throws InvalidOperationException {
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) throw new InvalidOperationException("No history for vehicle " + vehicleId + ".");
+        ByteBuffer buf = buffers[slot / CHUNK];
+        AtomicLongArray count = counts[slot / CHUNK];
+        int row = slot % CHUNK;
+        long end = count.get(row);
+        long begin = Math.max(0, end - capacity);
+        Ring r = new Ring((int) (end - begin));
+        for (long n = begin; n < end; n++) {
+            int at = offset(row, n), i = (int) (n - begin);
+            r.stamp[i] = buf.getLong(at);
+            r.mileage[i] = buf.getDouble(at + MILEAGE);
+            r.fuel[i] = buf.getDouble(at + FUEL);
+            r.cargo[i] = buf.getDouble(at + CARGO);
+            r.passengers[i] = buf.getInt(at + PASSENGERS);
+        }
+        // Samples the writer may have overwritten while they were copied
+        VarHandle.acquireFence();
+        long overwritten = count.get(row) - capacity - begin;
+        if (overwritten > 0) r.dropFirst((int) Math.min(overwritten, r.size));
+        return r;
+    }
+
+    // Copy of one vehicle's ring in time order
+    private static final class Ring {
+        long[] stamp;
+        double[] mileage, fuel, cargo;
+        int[] passengers;
+        int size;
+
+        Ring(int n) {
+            stamp = new long[n];
+            mileage = new double[n];
+            fuel = new double[n];
+            cargo = new double[n];
+            passengers = new int[n];
+            size = n;
+        }
+
+        long time(int i) {
+            return stamp[i] >> 8;
+        }
+
+        // Index of the first sample at or after t
+        int first(long t) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (time(mid) < t) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        HistorySample sample(int i) {
+            int code = (int) (stamp[i] & 0xFF);
+            return new HistorySample(time(i), code == 0 ? null : EVENTS[code - 1], mileage[i], fuel[i], cargo[i], passengers[i]);
+        }
+
+        void dropFirst(int k) {
+            size -= k;
+            stamp = Arrays.copyOfRange(stamp, k, k + size);
+            mileage = Arrays.copyOfRange(mileage, k, k + size);
+            fuel = Arrays.copyOfRange(fuel, k, k + size);
+            cargo = Arrays.copyOfRange(cargo, k, k + size);
+            passengers = Arrays.copyOfRange(passengers, k, k + size);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+import java.util.*;
+
+// Primary ID index plus secondary indexes by concrete type and by model.
+// All three are kept in sync by index()/unindex(), so lookups never scan the fleet.
+class FleetIndex {
+
+    // Insertion ordered so iteration matches the order vehicles were added
+    private final Map<String, Vehicle> byId = new LinkedHashMap<>();
+
+    private final Map<Class<?>, Map<String, Vehicle>> byType = new LinkedHashMap<>();
+
+    private final Map<String, Map<String, Vehicle>> byModel = new HashMap<>();
+
+    // Increasing number per vehicle that follows the iteration order, so anything
+    // keyed by it sorts the same way the fleet is listed
+    private final Map<String, Long> positions = new HashMap<>();
+    private long nextPosition;
+
+    boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    Vehicle get(String id) {
+        return byId.get(id);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    Collection<Vehicle> all() {
+        return byId.values();
+    }
+
+    // Returns false (and changes nothing) if the ID is already taken
+    boolean index(Vehicle v) {
+        if (byId.putIfAbsent(v.getId(), v) != null) return false;
+        byType.computeIfAbsent(v.getClass(), k -> new LinkedHashMap<>()).put(v.getId(), v);
+        byModel.computeIfAbsent(v.getModel(), k -> new LinkedHashMap<>()).put(v.getId(), v);
+        positions.put(v.getId(), nextPosition++);
+        return true;
+    }
+
+    Vehicle unindex(String id) {
+        Vehicle v = byId.remove(id);
+        if (v == null) return null;
+        removeFromBucket(byType, v.getClass(), id);
+        removeFromBucket(byModel, v.getModel(), id);
+        positions.remove(id);
+        return v;
+    }
+
+    void clear() {
+        byId.clear();
+        byType.clear();
+        byModel.clear();
+        positions.clear();
+    }
+
+    // Rebuilds every index in the given order (stable for equal elements)
+    void reorder(Comparator<? super Vehicle> order) {
+        List<Vehicle> sorted = new ArrayList<>(byId.values());
+        sorted.sort(order);
+        clear();
+        for (Vehicle v : sorted) index(v);
+    }
+
+    // -1 if the vehicle is not indexed
+    long position(String id) {
+        Long p = positions.get(id);
+        return p == null ? -1 : p;
+    }
+
+    Collection<Vehicle> ofExactType(Class<?> type) {
+        Map<String, Vehicle> bucket = byType.get(type);
+        return bucket == null ? Collections.emptyList() : bucket.values();
+    }
+
+    // Walks one bucket per concrete class instead of every vehicle
+    List<Vehicle> ofType(Class<?> type) {
+        List<Vehicle> out = new ArrayList<>();
+        for (Map.Entry<Class<?>, Map<String, Vehicle>> e : byType.entrySet()) {
+            if (type.isAssignableFrom(e.getKey())) out.addAll(e.getValue().values());
+        }
+        return out;
+    }
+
+    Collection<Vehicle> ofModel(String model) {
+        Map<String, Vehicle> bucket = byModel.get(model);
+        return bucket == null ? Collections.emptyList() : bucket.values();
+    }
+
+    Set<String> models() {
+        return byModel.keySet();
+    }
+
+    Set<Class<?>> types() {
+        return byType.keySet();
+    }
+
+    private static <K> void removeFromBucket(Map<K, Map<String, Vehicle>> buckets, K key, String id) {
+        Map<String, Vehicle> bucket = buckets.get(key);
+        if (bucket == null) return;
+        bucket.remove(id);
+        if (bucket.isEmpty()) buckets.remove(key);
+    }
+}
@@ -0,0 +1,339 @@
+package fleet;
+
+import events.FleetEventType;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import vehicles.Vehicle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Append-only log of fleet mutations on top of the last binary snapshot.
+//
+// Files in the journal directory are numbered by generation:
+//   fleet-<g>.snap   full FleetSnapshot, valid as the starting point for journals >= g
+//   journal-<g>.log  mutations recorded while generation g was current
+// Recovery loads the newest snapshot and replays the journals from its generation on.
+// Compaction seals the current journal, starts the next generation and writes the
+// new snapshot on a background thread; older files are deleted once it is in place.
+//
+// State-change records carry the vehicle's full mutable state after the change, service
+// mileage included, so replaying one that the snapshot already reflects is harmless.
+//
+// A record that cannot be written is dropped and reported as an UncheckedIOException;
+// FleetManager logs adds and removes before applying them and undoes a state change
+// the journal failed to record, so memory and the journal never disagree.
+public final class FleetJournal implements Closeable {
+
+    // When records reach the file
+    public enum Durability {
+        // Buffered until flush, sync, compaction or close; a crash loses the buffer
+        BUFFERED,
+        // Written to the file as each record is appended; survives the process crashing
+        WRITE,
+        // Also forced to the device after each record; survives the machine crashing
+        FORCE
+    }
+
+    // What recovery rebuilds into
+    interface Target {
+        void add(Vehicle v) throws Exception;
+
+        Vehicle remove(String id);
+
+        Vehicle find(String id);
+
+        // Called after a state record has been applied to a vehicle found through find()
+        void restored(Vehicle v);
+    }
+
+    // OP_ADD and OP_STATE records come from journals written before the service mileage was
+    // recorded; they are still replayed, keeping whatever service mileage the vehicle has
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_STATE = 3;
+    private static final byte OP_ADD_SERVICED = 4;
+    private static final byte OP_STATE_SERVICED = 5;
+
+    private static final int BUFFER = 64 << 10;
+
+    private final Path dir;
+    private final Durability durability;
+    private long generation;
+    private FileChannel channel;
+    private ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fleet-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private FleetJournal(Path dir, Durability durability) {
+        this.dir = dir;
+        this.durability = durability;
+    }
+
+    // Rebuilds the fleet recorded in dir into target, then opens the journal for appending
+    static FleetJournal open(Path dir, Durability durability, Target target) throws IOException {
+        Files.createDirectories(dir);
+        FleetJournal j = new FleetJournal(dir, durability);
+        TreeSet<Long> snaps = j.generations("fleet-", ".snap");
+        TreeSet<Long> logs = j.generations("journal-", ".log");
+        long start = snaps.isEmpty() ? (logs.isEmpty() ? 0 : logs.first()) : snaps.last();
+        if (!snaps.isEmpty()) {
+            FleetSnapshot.read(j.snapshotPath(start), target::add);
+        }
+        for (long g : logs.tailSet(start)) j.replay(j.journalPath(g), target);
+        j.generation = logs.isEmpty() ? start : Math.max(start, logs.last());
+        j.channel = FileChannel.open(j.journalPath(j.generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        j.channel.position(j.channel.size());
+        j.deleteBefore(start);
+        return j;
+    }
+
+    // True if dir already holds a snapshot or journal to recover from
+    static boolean hasState(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return false;
+        FleetJournal j = new FleetJournal(dir, Durability.BUFFERED);
+        j.compactor.shutdown();
+        return !j.generations("fleet-", ".snap").isEmpty() || !j.generations("journal-", ".log").isEmpty();
+    }
+
+    synchronized void added(Vehicle v) {
+        VehicleCodec<?> codec = VehicleCodecs.forClass(v.getClass());
+        if (codec == null) {
+            System.err.println("No codec for " + v.getClass().getSimpleName() + ", " + v.getId() + " not journaled.");
+            return;
+        }
+        byte[] id = utf8(v.getId());
+        byte[] model = utf8(v.getModel());
+        byte[] type = utf8(codec.typeName());
+        int start = begin(OP_ADD_SERVICED, id, 128 + type.length + id.length + model.length);
+        FleetSnapshot.putBytes(buf, type);
+        FleetSnapshot.putVehicle(buf, codec, v, id, model, false, true);
+        commit(start);
+    }
+
+    synchronized void removed(String id) {
+        commit(begin(OP_REMOVE, utf8(id), 0));
+    }
+
+    synchronized void changed(FleetEventType type, Vehicle v, double amount) {
+        int start = begin(OP_STATE_SERVICED, utf8(v.getId()), 64);
+        buf.put((byte) type.ordinal()).putDouble(amount).putDouble(v.getCurrentMileage());
+        buf.putDouble(v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0);
+        buf.putInt(v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0);
+        buf.putDouble(v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0);
+        buf.put((byte) (v instanceof Maintainable && ((Maintainable) v).needsMaintenance() ? 1 : 0));
+        buf.putDouble(v.getLastServiceMileage());
+        commit(start);
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    // Writes buffered records to the file; sync() also forces them to the device.
+    // If the write fails the records stay buffered and the file is cut back to where it was.
+    public synchronized void flush() throws IOException {
+        if (buf.position() == 0) return;
+        long at = channel.position();
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) channel.write(buf);
+        } catch (IOException e) {
+            buf.position(buf.limit()).limit(buf.capacity());
+            truncate(at, e);
+            throw e;
+        }
+        buf.clear();
+    }
+
+    public synchronized void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    // Seals the current journal and snapshots 'vehicles' in the background.
+    // The caller must hand over a list nobody else is modifying.
+    synchronized Future<?> compact(List<Vehicle> vehicles) throws IOException {
+        sync();
+        channel.close();
+        long g = ++generation;
+        channel = FileChannel.open(journalPath(g), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return compactor.submit(() -> {
+            try {
+                FleetSnapshot.write(snapshotPath(g), vehicles);
+                deleteBefore(g);
+            } catch (IOException e) {
+                System.err.println("Journal compaction failed: " + e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+        sync();
+        channel.close();
+    }
+
+    private int begin(byte op, byte[] id, int payload) {
+        int needed = 4 + 1 + 2 + id.length + payload;
+        if (buf.remaining() < needed) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buf.capacity() < needed) buf = ByteBuffer.allocateDirect(needed);
+        }
+        int start = buf.position();
+        buf.putInt(0).put(op);
+        FleetSnapshot.putBytes(buf, id);
+        return start;
+    }
+
+    // Completes the record started at 'start' and hands it to the file as the durability
+    // setting asks. On failure the record is dropped, from the buffer and from the file.
+    private void commit(int start) {
+        buf.putInt(start, buf.position() - start - 4);
+        if (durability == Durability.BUFFERED) return;
+        long at = -1;
+        try {
+            at = channel.position() + start;
+            flush();
+            if (durability == Durability.FORCE) channel.force(false);
+        } catch (IOException e) {
+            if (buf.position() > start) buf.position(start);
+            else if (at >= 0) truncate(at, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Best effort: cuts a failed write back off the end of the journal
+    private void truncate(long at, IOException cause) {
+        try {
+            if (channel.size() > at) channel.truncate(at);
+            channel.position(at);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void replay(Path path, Target target) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Journal segment too large: " + path);
+            ByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long good = 0;
+            long n = 0;
+            while (in.remaining() >= 4) {
+                int len = in.getInt(in.position());
+                if (len <= 0 || in.remaining() - 4 < len) break;
+                in.position(in.position() + 4);
+                int end = in.position() + len;
+                n++;
+                try {
+                    apply(in, target);
+                } catch (Exception e) {
+                    System.err.println("Error replaying record " + n + " of " + path.getFileName() + ": " + e.getMessage());
+                }
+                in.position(end);
+                good = end;
+            }
+            // Drop a record torn by a crash so new appends start on a clean boundary
+            if (good < size) ch.truncate(good);
+        }
+    }
+
+    private static void apply(ByteBuffer in, Target target) throws Exception {
+        byte op = in.get();
+        String id = FleetSnapshot.getString(in);
+        switch (op) {
+            case OP_ADD:
+            case OP_ADD_SERVICED: {
+                String type = FleetSnapshot.getString(in);
+                VehicleCodec<?> codec = VehicleCodecs.forName(type);
+                if (codec == null) throw new IllegalArgumentException("Unknown vehicle type: " + type);
+                Vehicle v = FleetSnapshot.getVehicle(in, codec, false, op == OP_ADD_SERVICED);
+                target.remove(id);
+                target.add(v);
+                break;
+            }
+            case OP_REMOVE:
+                target.remove(id);
+                break;
+            case OP_STATE:
+            case OP_STATE_SERVICED: {
+                Vehicle v = target.find(id);
+                in.get();
+                in.getDouble();
+                double mileage = in.getDouble();
+                double fuel = in.getDouble();
+                int passengers = in.getInt();
+                double cargo = in.getDouble();
+                boolean maintenance = in.get() != 0;
+                if (v != null) {
+                    double serviced = op == OP_STATE_SERVICED ? in.getDouble() : v.getLastServiceMileage();
+                    v.restoreState(mileage, serviced, fuel, passengers, cargo, maintenance);
+                    target.restored(v);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal record type " + op);
+        }
+    }
+
+    private TreeSet<Long> generations(String prefix, String suffix) throws IOException {
+        TreeSet<Long> out = new TreeSet<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                String name = p.getFileName().toString();
+                if (!name.startsWith(prefix) || !name.endsWith(suffix)) return;
+                try {
+                    out.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {}
+            });
+        }
+        return out;
+    }
+
+    private void deleteBefore(long g) throws IOException {
+        List<Path> stale = new ArrayList<>();
+        for (long s : generations("fleet-", ".snap").headSet(g)) stale.add(snapshotPath(s));
+        for (long s : generations("journal-", ".log").headSet(g)) stale.add(journalPath(s));
+        for (Path p : stale) Files.deleteIfExists(p);
+    }
+
+    private Path snapshotPath(long g) {
+        return dir.resolve("fleet-" + g + ".snap");
+    }
+
+    private Path journalPath(long g) {
+        return dir.resolve("journal-" + g + ".log");
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
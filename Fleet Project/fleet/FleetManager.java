@@ -1,311 +1,1353 @@
 package fleet;
 
 import vehicles.*;
+import events.FleetEventListener;
+import events.FleetEventType;
+import events.FleetEvents;
 import exceptions.InvalidOperationException;
 import exceptions.InsufficientFuelException;
+import exceptions.OverloadException;
 
+import interfaces.CargoCarrier;
 import interfaces.FuelConsumable;
 import interfaces.Maintainable;
+import interfaces.OperationStatus;
+import interfaces.PassengerCarrier;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class FleetManager {
 
-    // Using ArrayList for dynamic fleet storage
-    private List<Vehicle> fleet = new ArrayList<Vehicle>();
+    // Smallest slice of the fleet handed to one journey task
+    private static final int JOURNEY_CHUNK_MIN = 1024;
+
+    // Hash indexes by ID, concrete type and model; iteration keeps insertion order
+    private final FleetIndex index = new FleetIndex();
 
     // Using HashSet to ensure unique model names
     private final Set<String> distinctModels = new HashSet<>();
 
+    // Every vehicle in the fleet reports its state changes here
+    private final FleetEventListener tracker = this::onVehicleEvent;
+
+    private FleetJournal journal;
+
+    // While journaling: the vehicle this thread holds, as last written to the journal,
+    // so a change the journal fails to record can be undone
+    private final ThreadLocal<LoggedState> logged = ThreadLocal.withInitial(LoggedState::new);
+
+    // Running totals for generateReport and the fleet-wide getters
+    private final FleetStatistics stats = new FleetStatistics(index);
+
+    // Built on the first sorted query, then kept up to date; dropped when the fleet is reloaded or reordered
+    private volatile SortedViews sorted;
+
+    // Optional columnar copy of the numeric state, see enableColumnarStore()
+    private FleetColumns columns;
+
+    // Optional per-vehicle state history, see enableHistory()
+    private volatile FleetHistory history;
+
+    // Seat ledgers that boarding has to respect, set by the SeatReservations created last
+    volatile SeatReservations reservations;
+
+    // Off until enabled or registered over JMX, see registerMBean()
+    private final FleetMetrics metrics = new FleetMetrics();
+
+    // No-op unless the manager was created in concurrent mode
+    private final VehicleLocks locks;
+
+    public FleetManager() {
+        this(false);
+    }
+
+    // In concurrent mode the manager may be shared between threads: the fleet collection is
+    // guarded by a read/write lock, and the by-ID operations below (move, refuel, loadCargo, ...)
+    // hold a striped per-vehicle lock, so work on different vehicles proceeds in parallel.
+    // Vehicles handed out by listAll/findById should only be mutated through those operations.
+    public FleetManager(boolean concurrent) {
+        this.locks = concurrent ? VehicleLocks.striped() : VehicleLocks.none();
+    }
+
+    public boolean isConcurrent() {
+        return locks.isConcurrent();
+    }
+
     public void addVehicle(Vehicle v) throws InvalidOperationException {
         Objects.requireNonNull(v, "Vehicle cannot be null");
-        Optional<Vehicle> dup = fleet.stream().filter(x -> x.getId().equals(v.getId())).findAny();
-        if (dup.isPresent()) throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
-        fleet.add(v);
-        distinctModels.add(v.getModel());
+        long t0 = metrics.start(FleetOperation.ADD);
+        locks.write().lock();
+        try {
+            if (index.contains(v.getId())) throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
+            // Logged first, so a journal failure leaves the fleet as it was
+            if (journal != null) journal.added(v);
+            track(v);
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.ADD, t0);
+        }
     }
 
     public void removeVehicle(String id) throws InvalidOperationException {
-        boolean removed = fleet.removeIf(v -> v.getId().equals(id));
-        if (!removed) throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+        long t0 = metrics.start(FleetOperation.REMOVE);
+        locks.write().lock();
+        try {
+            if (!index.contains(id)) throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+            if (journal != null) journal.removed(id);
+            untrack(id);
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.REMOVE, t0);
+        }
+    }
+
+    // Runs the action while holding the vehicle's lock
+    public <R, E extends Exception> R withVehicle(String id, VehicleAction<R, E> action) throws E, InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            return action.apply(v);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void move(String id, double distance) throws InvalidOperationException, InsufficientFuelException {
+        long t0 = metrics.start(FleetOperation.MOVE);
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            v.move(distance);
+            metrics.outcome(v, OperationStatus.OK);
+        } catch (InsufficientFuelException e) {
+            metrics.outcome(v, OperationStatus.INSUFFICIENT_FUEL);
+            throw e;
+        } finally {
+            lock.unlock();
+            metrics.end(FleetOperation.MOVE, t0);
+        }
+    }
+
+    public void refuel(String id, double amount) throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            as(v, FuelConsumable.class, "use fuel").refuel(amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void loadCargo(String id, double weight) throws InvalidOperationException, OverloadException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            CargoCarrier c = as(v, CargoCarrier.class, "carry cargo");
+            try {
+                c.loadCargo(weight);
+            } catch (OverloadException e) {
+                if (weight > 0) metrics.outcome(v, OperationStatus.OVERLOAD);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unloadCargo(String id, double weight) throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            as(v, CargoCarrier.class, "carry cargo").unloadCargo(weight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void boardPassengers(String id, int count) throws InvalidOperationException, OverloadException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            PassengerCarrier p = as(v, PassengerCarrier.class, "carry passengers");
+            SeatReservations seats = count > 0 ? reservations : null;
+            if (seats != null && !seats.board(id, count)) {
+                metrics.outcome(v, OperationStatus.OVERLOAD);
+                throw new OverloadException("Not enough unsold seats on " + id + " for " + count + ".");
+            }
+            try {
+                p.boardPassengers(count);
+            } catch (InvalidOperationException | OverloadException e) {
+                if (seats != null) seats.disembark(id, count);
+                // Some carriers report a full vehicle as an invalid operation
+                if (count > 0) metrics.outcome(v, OperationStatus.OVERLOAD);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void disembarkPassengers(String id, int count) throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            as(v, PassengerCarrier.class, "carry passengers").disembarkPassengers(count);
+            SeatReservations seats = reservations;
+            if (seats != null) seats.disembark(id, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void scheduleMaintenance(String id) throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            as(v, Maintainable.class, "be maintained").scheduleMaintenance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void performMaintenance(String id) throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            as(v, Maintainable.class, "be maintained").performMaintenance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sets the vehicle's mileage, fuel level and cargo to measured values (see TelemetryIngest).
+    // NaN leaves a value as it is, as does a reading for something the vehicle does not carry.
+    // Crossing the service interval schedules maintenance, as driving there would.
+    public OperationStatus applyTelemetry(String id, double odometerKm, double fuelLitres, double loadKg)
+            throws InvalidOperationException {
+        Vehicle v = require(id);
+        Lock lock = lockFor(v);
+        try {
+            FuelConsumable fc = v instanceof FuelConsumable ? (FuelConsumable) v : null;
+            CargoCarrier cc = v instanceof CargoCarrier ? (CargoCarrier) v : null;
+            double mileage = v.getCurrentMileage();
+            double fuel = fc == null ? 0 : fc.getFuelLevel();
+            double cargo = cc == null ? 0 : cc.getCurrentCargo();
+            double newFuel = fc == null || Double.isNaN(fuelLitres) ? fuel : fuelLitres;
+            double newCargo = cc == null || Double.isNaN(loadKg) ? cargo : loadKg;
+            if (newFuel < 0 || newCargo < 0 || odometerKm < 0 || Double.isInfinite(odometerKm)) return OperationStatus.INVALID_AMOUNT;
+            if (cc != null && newCargo > cc.getCargoCapacity()) return OperationStatus.OVERLOAD;
+            v.restoreState(Double.isNaN(odometerKm) ? mileage : odometerKm, newFuel,
+                    v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0, newCargo,
+                    v instanceof Maintainable && ((Maintainable) v).needsMaintenance());
+            double distance = v.getCurrentMileage() - mileage;
+            if (distance != 0) {
+                // restoreState sends no events, so the statistics, columns, journal and history hear it here
+                onVehicleEvent(FleetEventType.MOVED, v, distance);
+                if (v instanceof Maintainable) {
+                    Maintainable m = (Maintainable) v;
+                    if (!m.needsMaintenance() && v.getServiceOverdueKm() >= 0) m.scheduleMaintenance();
+                }
+            } else if (fc != null && fc.getFuelLevel() != fuel) {
+                double change = fc.getFuelLevel() - fuel;
+                onVehicleEvent(change > 0 ? FleetEventType.REFUELED : FleetEventType.FUEL_CONSUMED, v, Math.abs(change));
+            } else if (cc != null && cc.getCurrentCargo() != cargo) {
+                double change = cc.getCurrentCargo() - cargo;
+                onVehicleEvent(change > 0 ? FleetEventType.CARGO_LOADED : FleetEventType.CARGO_UNLOADED, v, Math.abs(change));
+            }
+            return OperationStatus.OK;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Vehicle require(String id) throws InvalidOperationException {
+        Vehicle v = findById(id);
+        if (v == null) throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+        return v;
+    }
+
+    private Lock lockFor(Vehicle v) {
+        Lock lock = locks.forVehicle(v.getId());
+        lock.lock();
+        if (journal != null) logged.get().capture(v);
+        return lock;
+    }
+
+    private static <T> T as(Vehicle v, Class<T> capability, String what) throws InvalidOperationException {
+        if (!capability.isInstance(v)) throw new InvalidOperationException("Vehicle " + v.getId() + " cannot " + what + ".");
+        return capability.cast(v);
+    }
+
+    private boolean track(Vehicle v) {
+        if (!index.index(v)) return false;
+        distinctModels.add(v.getModel());
+        stats.added(v);
+        SortedViews views = sorted;
+        if (views != null) views.add(v, index.position(v.getId()));
+        if (columns != null) columns.add(v);
+        if (history != null) history.add(v);
+        v.setListener(tracker);
+        return true;
+    }
+
+    private Vehicle untrack(String id) {
+        Vehicle removed = index.get(id);
+        if (removed == null) return null;
+        stats.removed(removed);
+        SortedViews views = sorted;
+        if (views != null) views.remove(id);
+        index.unindex(id);
+        if (index.ofModel(removed.getModel()).isEmpty()) distinctModels.remove(removed.getModel());
+        if (columns != null) columns.remove(id);
+        if (history != null) history.remove(id);
+        SeatReservations seats = reservations;
+        if (seats != null) seats.close(id);
+        if (removed.getListener() == tracker) removed.setListener(null);
+        return removed;
+    }
+
+    private void untrackAll() {
+        SeatReservations seats = reservations;
+        for (Vehicle v : index.all()) {
+            if (seats != null) seats.close(v.getId());
+            if (v.getListener() == tracker) v.setListener(null);
+        }
+        index.clear();
+        distinctModels.clear();
+        stats.clear();
+        sorted = null;
+        if (columns != null) columns.clear();
+        if (history != null) history.clear();
+    }
+
+    private void onVehicleEvent(FleetEventType type, Vehicle v, double amount) {
+        if (journal != null) journalChange(type, v, amount);
+        boolean counted = type == FleetEventType.MOVED || type == FleetEventType.MAINTENANCE_SCHEDULED
+                || type == FleetEventType.MAINTENANCE_PERFORMED;
+        if (!counted && columns == null && history == null) return;
+        // Vehicle operations only hold the vehicle's own lock; the shared read lock keeps
+        // the index, columns and history from changing shape underneath
+        locks.read().lock();
+        try {
+            if (type == FleetEventType.MOVED) stats.moved(v, amount);
+            else if (counted) stats.maintenanceChanged(v);
+            if (columns != null) columns.update(v);
+            if (history != null) history.record(type, v);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public Vehicle findById(String id) {
+        locks.read().lock();
+        try {
+            return index.get(id);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public List<Vehicle> searchByModel(String model) {
+        long t0 = metrics.start(FleetOperation.SEARCH);
+        locks.read().lock();
+        try {
+            return new ArrayList<>(index.ofModel(model));
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SEARCH, t0);
+        }
+    }
+
+    public Set<String> getDistinctModels() {
+        locks.read().lock();
+        try {
+            return Collections.unmodifiableSet(new HashSet<>(distinctModels));
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public int size() {
+        locks.read().lock();
+        try {
+            return index.size();
+        } finally {
+            locks.read().unlock();
+        }
     }
 
     public void startAllJourneys(double distance) {
-        for (Vehicle v : new ArrayList<>(fleet)) {
+        long t0 = metrics.start(FleetOperation.JOURNEYS);
+        for (Vehicle v : listAll()) {
+            Lock lock = lockFor(v);
             try {
-                v.move(distance);
-            } catch (InvalidOperationException e) {
-                System.err.println("Invalid operation for " + v.getId() + ": " + e.getMessage());
-            } catch (InsufficientFuelException e) {
-                System.err.println("Fuel problem for " + v.getId() + ": " + e.getMessage());
+                OperationStatus status = v.tryMove(distance);
+                metrics.outcome(v, status);
+                switch (status) {
+                    case OK:
+                        break;
+                    case INSUFFICIENT_FUEL:
+                        System.err.println("Fuel problem for " + v.getId() + ": Not enough fuel.");
+                        break;
+                    case INVALID_AMOUNT:
+                        System.err.println("Invalid operation for " + v.getId() + ": Distance cannot be negative.");
+                        break;
+                    default:
+                        System.err.println("Invalid operation for " + v.getId() + ": Cannot move.");
+                }
             } catch (Exception e) {
                 System.err.println("Unexpected error for " + v.getId() + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+        metrics.end(FleetOperation.JOURNEYS, t0);
+    }
+
+    public JourneyBatchResult startAllJourneysParallel(double distance) {
+        return startAllJourneys(distance, ForkJoinPool.commonPool());
+    }
+
+    // Moves every vehicle on the given executor (a ForkJoinPool or any other ExecutorService)
+    // and reports per-vehicle outcomes instead of printing failures.
+    public JourneyBatchResult startAllJourneys(double distance, ExecutorService executor) {
+        long t0 = metrics.start(FleetOperation.JOURNEYS);
+        long start = System.nanoTime();
+        List<Vehicle> all = listAll();
+        int n = all.size();
+        String[] ids = new String[n];
+        JourneyOutcome[] outcomes = new JourneyOutcome[n];
+        int chunk = Math.max(JOURNEY_CHUNK_MIN, n / (Runtime.getRuntime().availableProcessors() * 8) + 1);
+        List<Future<double[]>> parts = new ArrayList<>();
+        for (int from = 0; from < n; from += chunk) {
+            int lo = from, hi = Math.min(n, from + chunk);
+            parts.add(executor.submit(() -> runJourneys(all, lo, hi, distance, ids, outcomes)));
+        }
+        double totalDistance = 0, totalFuel = 0;
+        for (Future<double[]> f : parts) {
+            double[] sums = join(f);
+            totalDistance += sums[0];
+            totalFuel += sums[1];
+        }
+        metrics.end(FleetOperation.JOURNEYS, t0);
+        return new JourneyBatchResult(distance, ids, outcomes, totalDistance, totalFuel, System.nanoTime() - start);
+    }
+
+    // Returns {distance covered, fuel used} for vehicles lo..hi
+    private double[] runJourneys(List<Vehicle> all, int lo, int hi, double distance,
+                                 String[] ids, JourneyOutcome[] outcomes) {
+        double covered = 0, fuel = 0;
+        for (int i = lo; i < hi; i++) {
+            Vehicle v = all.get(i);
+            ids[i] = v.getId();
+            Lock lock = lockFor(v);
+            try {
+                double before = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+                OperationStatus status = v.tryMove(distance);
+                metrics.outcome(v, status);
+                if (status == OperationStatus.OK) {
+                    if (v instanceof FuelConsumable) fuel += before - ((FuelConsumable) v).getFuelLevel();
+                    covered += distance;
+                    outcomes[i] = JourneyOutcome.SUCCESS;
+                } else {
+                    outcomes[i] = status == OperationStatus.INSUFFICIENT_FUEL
+                            ? JourneyOutcome.INSUFFICIENT_FUEL : JourneyOutcome.INVALID_OPERATION;
+                }
+            } catch (RuntimeException e) {
+                outcomes[i] = JourneyOutcome.FAILED;
+            } finally {
+                lock.unlock();
             }
         }
+        return new double[] {covered, fuel};
+    }
+
+    private static <T> T join(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journeys", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Journey batch failed", e.getCause());
+        }
     }
 
     public double getTotalFuelConsumption(double distance) {
         double total = 0.0;
-        for (Vehicle v : fleet) {
+        for (Vehicle v : listAll()) {
             if (v instanceof FuelConsumable) {
                 FuelConsumable fc = (FuelConsumable) v;
+                Lock lock = lockFor(v);
                 try {
-                    total += fc.consumeFuel(distance);
-                } catch (InsufficientFuelException e) {
-                    System.err.println("Insufficient fuel while computing consumption for " + v.getId() + ": " + e.getMessage());
+                    double needed = fc.fuelRequired(distance);
+                    if (fc.tryConsumeFuel(distance) == OperationStatus.OK) {
+                        total += needed;
+                    } else {
+                        System.err.println("Insufficient fuel while computing consumption for " + v.getId() + ": Not enough fuel.");
+                    }
                 } catch (Exception e) {
                     System.err.println("Error consuming fuel for " + v.getId() + ": " + e.getMessage());
+                } finally {
+                    lock.unlock();
                 }
             }
         }
         return total;
     }
 
+    // Bulk operations: one pass over the type buckets that can take part, one BulkResult and
+    // one onBatch summary to the event sink instead of a message per vehicle. A null filter
+    // selects every capable vehicle. The manager's own tracking (journal, statistics) still
+    // sees each change.
+
+    public BulkResult refuelAll(Predicate<? super Vehicle> filter, RefuelPolicy policy, double amount) {
+        if (!(amount > 0)) throw new IllegalArgumentException("Refuel amount must be positive.");
+        return bulk(FleetEventType.REFUELED, FuelConsumable.class, filter, (v, failures) -> {
+            FuelConsumable fc = (FuelConsumable) v;
+            double add = policy == RefuelPolicy.TOP_UP ? amount : amount - fc.getFuelLevel();
+            if (add <= 0) return 0;
+            return applied(v, fc.tryRefuel(add), add, failures);
+        });
+    }
+
+    public BulkResult unloadAllCargo(Predicate<? super Vehicle> filter) {
+        return bulk(FleetEventType.CARGO_UNLOADED, CargoCarrier.class, filter, (v, failures) -> {
+            CargoCarrier cc = (CargoCarrier) v;
+            double cargo = cc.getCurrentCargo();
+            if (cargo <= 0) return 0;
+            return applied(v, cc.tryUnloadCargo(cargo), cargo, failures);
+        });
+    }
+
+    public BulkResult disembarkAll(Predicate<? super Vehicle> filter) {
+        return bulk(FleetEventType.PASSENGERS_DISEMBARKED, PassengerCarrier.class, filter, (v, failures) -> {
+            PassengerCarrier pc = (PassengerCarrier) v;
+            int passengers = pc.getCurrentPassengers();
+            if (passengers <= 0) return 0;
+            OperationStatus status = pc.tryDisembarkPassengers(passengers);
+            SeatReservations seats = reservations;
+            if (status == OperationStatus.OK && seats != null) seats.disembark(v.getId(), passengers);
+            return applied(v, status, passengers, failures);
+        });
+    }
+
+    // Walks only the maintenance queue, so the cost is in the number of due vehicles
+    public BulkResult maintainAll(Predicate<? super Vehicle> filter) {
+        long start = System.nanoTime();
+        int matched = 0, changed = 0;
+        FleetEvents.beginBatch();
+        try {
+            for (Vehicle v : getMaintenanceQueue()) {
+                if (filter != null && !filter.test(v)) continue;
+                matched++;
+                Lock lock = lockFor(v);
+                try {
+                    Maintainable m = (Maintainable) v;
+                    if (m.needsMaintenance()) {
+                        m.performMaintenance();
+                        changed++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            FleetEvents.endBatch();
+        }
+        if (changed > 0) FleetEvents.sink().onBatch(FleetEventType.MAINTENANCE_PERFORMED, changed, 0);
+        return new BulkResult(FleetEventType.MAINTENANCE_PERFORMED, matched, changed, 0,
+                new LinkedHashMap<>(), System.nanoTime() - start);
+    }
+
+    // Applies one vehicle's share of a bulk operation; returns the amount moved,
+    // 0 if there was nothing to do, or a negative value after recording a failure
+    private interface BulkStep {
+        double apply(Vehicle v, Map<String, OperationStatus> failures);
+    }
+
+    private static double applied(Vehicle v, OperationStatus status, double amount, Map<String, OperationStatus> failures) {
+        if (status == OperationStatus.OK) return amount;
+        failures.put(v.getId(), status);
+        return -1;
+    }
+
+    private BulkResult bulk(FleetEventType type, Class<?> capability, Predicate<? super Vehicle> filter, BulkStep step) {
+        long start = System.nanoTime();
+        Map<String, OperationStatus> failures = new LinkedHashMap<>();
+        int matched = 0, changed = 0;
+        double total = 0;
+        FleetEvents.beginBatch();
+        try {
+            for (Collection<Vehicle> bucket : bulkBuckets(capability)) {
+                for (Vehicle v : bucket) {
+                    if (filter != null && !filter.test(v)) continue;
+                    matched++;
+                    Lock lock = lockFor(v);
+                    try {
+                        double done = step.apply(v, failures);
+                        if (done > 0) {
+                            changed++;
+                            total += done;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } finally {
+            FleetEvents.endBatch();
+        }
+        if (changed > 0) FleetEvents.sink().onBatch(type, changed, total);
+        return new BulkResult(type, matched, changed, total, failures, System.nanoTime() - start);
+    }
+
+    // Single-threaded managers walk the type buckets in place. In concurrent mode they are
+    // copied first: holding the fleet read lock while waiting for vehicle locks could
+    // deadlock against a queued writer.
+    private List<Collection<Vehicle>> bulkBuckets(Class<?> capability) {
+        List<Collection<Vehicle>> buckets = new ArrayList<>();
+        locks.read().lock();
+        try {
+            for (Class<?> t : index.types()) {
+                if (!capability.isAssignableFrom(t)) continue;
+                buckets.add(locks.isConcurrent() ? new ArrayList<>(index.ofExactType(t)) : index.ofExactType(t));
+            }
+        } finally {
+            locks.read().unlock();
+        }
+        return buckets;
+    }
+
+    // Same totals and outcomes startAllJourneys would report, computed without moving anything
+    public JourneyBatchResult startAllJourneysDryRun(double distance) {
+        long start = System.nanoTime();
+        locks.read().lock();
+        try {
+            int n = index.size();
+            String[] ids = new String[n];
+            JourneyOutcome[] outcomes = new JourneyOutcome[n];
+            double covered = 0, fuel = 0;
+            int i = 0;
+            for (Vehicle v : index.all()) {
+                ids[i] = v.getId();
+                double need = v instanceof FuelConsumable ? ((FuelConsumable) v).fuelRequired(distance) : 0;
+                if (distance < 0) {
+                    outcomes[i] = JourneyOutcome.INVALID_OPERATION;
+                } else if (need > 0 && need > ((FuelConsumable) v).getFuelLevel()) {
+                    outcomes[i] = JourneyOutcome.INSUFFICIENT_FUEL;
+                } else {
+                    outcomes[i] = JourneyOutcome.SUCCESS;
+                    covered += distance;
+                    fuel += need;
+                }
+                i++;
+            }
+            return new JourneyBatchResult(distance, ids, outcomes, covered, fuel, System.nanoTime() - start, true);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    // Side-effect-free counterpart of getTotalFuelConsumption for any number of candidate
+    // distances, computed in one pass over the fleet (one type bucket at a time).
+    // In concurrent mode the figures reflect whatever state each vehicle is in when read.
+    public FuelEstimate estimateFuel(double... distances) {
+        for (double d : distances) {
+            if (!(d >= 0)) throw new IllegalArgumentException("Distance cannot be negative: " + d);
+        }
+        int k = distances.length;
+        double[] needed = new double[k], shortfall = new double[k], longest = new double[k], hours = new double[k];
+        int[] shortCount = new int[k];
+        Map<String, double[]> byType = new LinkedHashMap<>();
+        locks.read().lock();
+        try {
+            for (Class<?> type : index.types()) {
+                double[] typeNeeded = byType.computeIfAbsent(type.getSimpleName(), t -> new double[k]);
+                for (Vehicle v : index.ofExactType(type)) {
+                    FuelConsumable fc = v instanceof FuelConsumable ? (FuelConsumable) v : null;
+                    double level = fc == null ? 0 : fc.getFuelLevel();
+                    for (int i = 0; i < k; i++) {
+                        double d = distances[i];
+                        if (fc != null) {
+                            double need = fc.fuelRequired(d);
+                            needed[i] += need;
+                            typeNeeded[i] += need;
+                            if (need > level) {
+                                shortfall[i] += need - level;
+                                shortCount[i]++;
+                            }
+                        }
+                        double h = journeyHours(v, d);
+                        hours[i] += h;
+                        if (h > longest[i]) longest[i] = h;
+                    }
+                }
+            }
+            return new FuelEstimate(distances.clone(), index.size(), needed, shortfall, shortCount, longest, hours, byType);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public double estimateFuelConsumption(double distance) {
+        return estimateFuel(distance).getFuelNeeded(0);
+    }
+
+    private static double journeyHours(Vehicle v, double distance) {
+        try {
+            return v.estimateJourneyTime(distance);
+        } catch (InvalidOperationException e) {
+            // Distances are checked up front
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Services every due vehicle, most overdue first, without scanning the rest of the fleet
     public void maintainAll() {
-        for (Vehicle v : fleet) {
-            if (v instanceof Maintainable) {
-                Maintainable m = (Maintainable) v;
+        for (Vehicle v : getMaintenanceQueue()) {
+            Maintainable m = (Maintainable) v;
+            Lock lock = lockFor(v);
+            try {
                 if (m.needsMaintenance()) m.performMaintenance();
+            } finally {
+                lock.unlock();
             }
         }
     }
 
+    // Vehicles needing maintenance ordered by how far past their service interval they are
+    public List<Vehicle> getMaintenanceQueue() {
+        return getMaintenanceQueue(Integer.MAX_VALUE);
+    }
+
+    public List<Vehicle> getMaintenanceQueue(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        locks.read().lock();
+        try {
+            return stats.maintenanceQueue(limit);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
     public List<Vehicle> searchByType(Class<?> type) {
-        return fleet.stream()
-                .filter(v -> type.isAssignableFrom(v.getClass()))
-                .collect(Collectors.toList());
+        long t0 = metrics.start(FleetOperation.SEARCH);
+        locks.read().lock();
+        try {
+            return index.ofType(type);
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SEARCH, t0);
+        }
     }
 
     public void sortFleetByEfficiency() {
-        Collections.sort(fleet);
+        long t0 = metrics.start(FleetOperation.SORT);
+        locks.write().lock();
+        try {
+            index.reorder(Comparator.naturalOrder());
+            stats.invalidate();
+            sorted = null;
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.SORT, t0);
+        }
         System.out.println("Fleet sorted by fuel efficiency (ascending order).");
     }
 
+    // Keeps a struct-of-arrays copy of fuel, mileage, efficiency, cargo, passengers, maintenance
+    // state and type next to the vehicles. The load totals and fuel filter below scan primitive
+    // columns instead of walking every Vehicle, and the report totals are rebuilt from them
+    // when they go stale. Costs one row update per vehicle event.
+    public void enableColumnarStore() {
+        locks.write().lock();
+        try {
+            if (columns != null) return;
+            columns = new FleetColumns();
+            for (Vehicle v : index.all()) columns.add(v);
+            stats.setColumns(columns);
+        } finally {
+            locks.write().unlock();
+        }
+    }
+
+    public boolean isColumnarStoreEnabled() {
+        return columns != null;
+    }
+
+    // Keeps the last samplesPerVehicle states of every vehicle (see FleetHistory), in direct
+    // buffers outside the Java heap if offHeap. Costs one 36-byte sample per vehicle event.
+    public FleetHistory enableHistory(int samplesPerVehicle, boolean offHeap) {
+        return enableHistory(samplesPerVehicle, offHeap, System::currentTimeMillis);
+    }
+
+    // Same, with samples stamped by the given millisecond clock (e.g. a simulation's), which must not go backwards
+    public FleetHistory enableHistory(int samplesPerVehicle, boolean offHeap, LongSupplier clock) {
+        locks.write().lock();
+        try {
+            if (history != null) return history;
+            FleetHistory h = new FleetHistory(samplesPerVehicle, offHeap, clock);
+            for (Vehicle v : index.all()) h.add(v);
+            history = h;
+            return h;
+        } finally {
+            locks.write().unlock();
+        }
+    }
+
+    // Null unless enableHistory() was called
+    public FleetHistory getHistory() {
+        return history;
+    }
+
+    public double getTotalMileage() {
+        locks.read().lock();
+        try {
+            return stats.totalMileage();
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public double getTotalFuelLevel() {
+        locks.read().lock();
+        try {
+            if (columns != null) return columns.totalFuel();
+            double total = 0;
+            for (Vehicle v : index.all()) {
+                if (v instanceof FuelConsumable) total += ((FuelConsumable) v).getFuelLevel();
+            }
+            return total;
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public double getAverageFuelEfficiency() {
+        locks.read().lock();
+        try {
+            return stats.averageEfficiency();
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public int countVehiclesNeedingMaintenance() {
+        locks.read().lock();
+        try {
+            return stats.maintenanceCount();
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public double getTotalCargoLoad() {
+        locks.read().lock();
+        try {
+            if (columns != null) return columns.totalCargo();
+            double total = 0;
+            for (Vehicle v : index.all()) {
+                if (v instanceof CargoCarrier) total += ((CargoCarrier) v).getCurrentCargo();
+            }
+            return total;
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public long getTotalPassengers() {
+        locks.read().lock();
+        try {
+            if (columns != null) return columns.totalPassengers();
+            long total = 0;
+            for (Vehicle v : index.all()) {
+                if (v instanceof PassengerCarrier) total += ((PassengerCarrier) v).getCurrentPassengers();
+            }
+            return total;
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    // Fuel-consuming vehicles with less than 'level' litres on board, in no particular order
+    public List<Vehicle> getVehiclesBelowFuel(double level) {
+        locks.read().lock();
+        try {
+            if (columns != null) return columns.belowFuel(level);
+            List<Vehicle> out = new ArrayList<>();
+            for (Vehicle v : index.all()) {
+                if (v instanceof FuelConsumable && ((FuelConsumable) v).getFuelLevel() < level) out.add(v);
+            }
+            return out;
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
     public String generateReport() {
+        long t0 = metrics.start(FleetOperation.REPORT);
+        locks.read().lock();
+        try {
+            return buildReport();
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.REPORT, t0);
+        }
+    }
+
+    private String buildReport() {
         StringBuilder sb = new StringBuilder();
         sb.append("Fleet Report\n");
         sb.append("**********************************************\n");
-        sb.append("Total vehicles: ").append(fleet.size()).append("\n");
-        Map<String, Long> byType = fleet.stream()
-                .collect(Collectors.groupingBy(v -> v.getClass().getSimpleName(), Collectors.counting()));
+        sb.append("Total vehicles: ").append(index.size()).append("\n");
+        // Same grouping and order as a groupingBy over the fleet would give
+        Map<String, Long> byType = new HashMap<>();
+        for (Map.Entry<Class<?>, Long> e : stats.countByType().entrySet()) {
+            byType.merge(e.getKey().getSimpleName(), e.getValue(), Long::sum);
+        }
         sb.append("Vehicle Count by type:\n");
         for (Map.Entry<String, Long> e : byType.entrySet()) {
             sb.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append("\n");
         }
-        double avgEff = fleet.stream().mapToDouble(Vehicle::calculateFuelEfficiency).average().orElse(0.0);
-        sb.append(String.format("Average fuel efficiency: %.2f km/l\n", avgEff));
-        double totalMileage = fleet.stream().mapToDouble(FleetManager::getMileageSafe).sum();
-        sb.append(String.format("Total mileage: %.2f km\n", totalMileage));
-        List<String> needs = fleet.stream()
-                .filter(v -> v instanceof Maintainable && ((Maintainable) v).needsMaintenance())
-                .map(Vehicle::getId).collect(Collectors.toList());
+        sb.append(String.format("Average fuel efficiency: %.2f km/l\n", stats.averageEfficiency()));
+        sb.append(String.format("Total mileage: %.2f km\n", stats.totalMileage()));
+        List<Vehicle> needs = stats.needingMaintenance();
         sb.append("Vehicles needing maintenance: ").append(needs.size()).append("\n");
-        if (!needs.isEmpty()) sb.append("  ").append(String.join(", ", needs)).append("\n");
+        if (!needs.isEmpty()) {
+            sb.append("  ");
+            for (int i = 0; i < needs.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(needs.get(i).getId());
+            }
+            sb.append("\n");
+        }
         return sb.toString();
     }
 
     public List<Vehicle> getVehiclesNeedingMaintenance() {
-        return fleet.stream()
-                .filter(v -> v instanceof Maintainable && ((Maintainable) v).needsMaintenance())
-                .collect(Collectors.toList());
+        locks.read().lock();
+        try {
+            return stats.needingMaintenance();
+        } finally {
+            locks.read().unlock();
+        }
     }
 
     public void saveToFile(String filename) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            for (Vehicle v : fleet) {
-                String type = v.getClass().getSimpleName();
-                String id = v.getId();
-                String model = safeInvokeString(v, "getModel");
-                double maxSpeed = safeInvokeDouble(v, "getMaxSpeed");
-                double currMileage = getMileageSafe(v);
-
-                if (v instanceof vehicles.Car) {
-                    vehicles.Car c = (vehicles.Car) v;
-                    int numWheels = safeInvokeInt(v, "getNumWheels", 4);
-                    double fuelLevel = safeInvokeDouble(v, "getFuelLevel");
-                    int pCap = safeInvokeInt(v, "getPassengerCapacity", 5);
-                    int currP = safeInvokeInt(v, "getCurrentPassengers", 0);
-                    boolean mNeeded = (c instanceof Maintainable) && ((Maintainable) c).needsMaintenance();
-                    pw.printf("Car,%s,%s,%.2f,%.2f,%d,%.2f,%d,%d,%b%n",
-                            id, model, maxSpeed, currMileage, numWheels, fuelLevel, pCap, currP, mNeeded);
-                } else if (v instanceof vehicles.Truck) {
-                    vehicles.Truck t = (vehicles.Truck) v;
-                    int numWheels = safeInvokeInt(v, "getNumWheels", 6);
-                    double fuelLevel = safeInvokeDouble(v, "getFuelLevel");
-                    double cargoCap = safeInvokeDouble(v, "getCargoCapacity");
-                    double currCargo = safeInvokeDouble(v, "getCurrentCargo");
-                    boolean mNeeded = (t instanceof Maintainable) && ((Maintainable) t).needsMaintenance();
-                    pw.printf("Truck,%s,%s,%.2f,%.2f,%d,%.2f,%.2f,%.2f,%b%n",
-                            id, model, maxSpeed, currMileage, numWheels, fuelLevel, cargoCap, currCargo, mNeeded);
-                } else if (v instanceof vehicles.Bus) {
-                    vehicles.Bus b = (vehicles.Bus) v;
-                    int numWheels = safeInvokeInt(v, "getNumWheels", 6);
-                    double fuelLevel = safeInvokeDouble(v, "getFuelLevel");
-                    int pCap = safeInvokeInt(v, "getPassengerCapacity", 50);
-                    int currP = safeInvokeInt(v, "getCurrentPassengers", 0);
-                    double cargoCap = safeInvokeDouble(v, "getCargoCapacity");
-                    double currCargo = safeInvokeDouble(v, "getCurrentCargo");
-                    boolean mNeeded = (b instanceof Maintainable) && ((Maintainable) b).needsMaintenance();
-                    pw.printf("Bus,%s,%s,%.2f,%.2f,%d,%.2f,%d,%d,%.2f,%.2f,%b%n",
-                            id, model, maxSpeed, currMileage, numWheels, fuelLevel, pCap, currP, cargoCap, currCargo, mNeeded);
-                } else if (v instanceof vehicles.Airplane) {
-                    vehicles.Airplane a = (vehicles.Airplane) v;
-                    double maxAlt = safeInvokeDouble(v, "getMaxAltitude");
-                    double fuelLevel = safeInvokeDouble(v, "getFuelLevel");
-                    int pCap = safeInvokeInt(v, "getPassengerCapacity", 200);
-                    int currP = safeInvokeInt(v, "getCurrentPassengers", 0);
-                    double cargoCap = safeInvokeDouble(v, "getCargoCapacity");
-                    double currCargo = safeInvokeDouble(v, "getCurrentCargo");
-                    boolean mNeeded = (a instanceof Maintainable) && ((Maintainable) a).needsMaintenance();
-                    pw.printf("Airplane,%s,%s,%.2f,%.2f,%.2f,%.2f,%d,%d,%.2f,%.2f,%b%n",
-                            id, model, maxSpeed, currMileage, maxAlt, fuelLevel, pCap, currP, cargoCap, currCargo, mNeeded);
-                } else if (v instanceof vehicles.CargoShip) {
-                    vehicles.CargoShip s = (vehicles.CargoShip) v;
-                    boolean hasSail = safeInvokeBoolean(v, "getHasSail", false);
-                    double fuelLevel = safeInvokeDouble(v, "getFuelLevel");
-                    double cargoCap = safeInvokeDouble(v, "getCargoCapacity");
-                    double currCargo = safeInvokeDouble(v, "getCurrentCargo");
-                    boolean mNeeded = (s instanceof Maintainable) && ((Maintainable) s).needsMaintenance();
-                    pw.printf("CargoShip,%s,%s,%.2f,%.2f,%b,%.2f,%.2f,%.2f,%b%n",
-                            id, model, maxSpeed, currMileage, hasSail, fuelLevel, cargoCap, currCargo, mNeeded);
-                } else {
-                    pw.printf("%s,%s,%s,%.2f,%.2f%n", type, id, model, maxSpeed, currMileage);
-                }
+        long t0 = metrics.start(FleetOperation.SAVE);
+        locks.read().lock();
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(filename))) {
+            StringBuilder line = new StringBuilder(128);
+            for (Vehicle v : index.all()) {
+                line.setLength(0);
+                VehicleCodecs.write(v, line);
+                line.append(System.lineSeparator());
+                w.append(line);
             }
             System.out.println("Saved Fleet to file: " + filename);
         } catch (IOException e) {
             System.err.println("Error saving fleet: " + e.getMessage());
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SAVE, t0);
         }
     }
 
+    // Streams the file through a memory-mapped window, so memory use does not grow with the
+    // file size beyond the vehicles themselves. The fleet is only replaced once the whole
+    // file has been read; if reading fails the current fleet is kept.
     public void loadFromFile(String filename) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            List<Vehicle> loaded = new ArrayList<>();
-            String line;
-            int lineNo = 0;
-            while ((line = br.readLine()) != null) {
-                lineNo++;
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                String[] parts = line.split(",", -1);
-                try {
-                    Vehicle v = VehicleFactory.createVehicle(parts);
-                    if (v != null) {
-                        loaded.add(v);
-                        distinctModels.add(v.getModel());
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error parsing line " + lineNo + ": " + e.getMessage());
-                }
-            }
-            fleet.clear();
-            fleet.addAll(loaded);
-            System.out.println("Loaded " + loaded.size() + " vehicles from " + filename);
+        long t0 = metrics.start(FleetOperation.LOAD);
+        locks.write().lock();
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            LoadHandler loaded = new LoadHandler();
+            new MappedCsvReader().read(ch, 0, ch.size(), 0, loaded);
+            replaceFleet(loaded.vehicles.values());
+            System.out.println("Loaded " + index.size() + " vehicles from " + filename);
+            journalReset();
+        } catch (IOException e) {
+            System.err.println("Error loading fleet: " + e);
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.LOAD, t0);
+        }
+    }
+
+    public void loadFromFileParallel(String filename) {
+        loadFromFileParallel(filename, ForkJoinPool.commonPool());
+    }
+
+    // Parses chunks of the file on the given pool; vehicles are added and errors reported
+    // in file order, so the outcome is the same as loadFromFile.
+    public void loadFromFileParallel(String filename, ForkJoinPool pool) {
+        long t0 = metrics.start(FleetOperation.LOAD);
+        locks.write().lock();
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            LoadHandler loaded = new LoadHandler();
+            new ParallelCsvLoader(pool).read(ch, loaded);
+            replaceFleet(loaded.vehicles.values());
+            System.out.println("Loaded " + index.size() + " vehicles from " + filename);
+            journalReset();
+        } catch (IOException e) {
+            System.err.println("Error loading fleet: " + e);
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.LOAD, t0);
+        }
+    }
+
+    // Binary counterpart of saveToFile/loadFromFile for fast restarts (see FleetSnapshot)
+    public void saveSnapshot(String filename) {
+        long t0 = metrics.start(FleetOperation.SAVE);
+        locks.read().lock();
+        try {
+            long n = FleetSnapshot.write(Paths.get(filename), index.all());
+            System.out.println("Saved snapshot of " + n + " vehicles to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error saving snapshot: " + e);
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SAVE, t0);
+        }
+    }
+
+    public void loadSnapshot(String filename) {
+        Path path = Paths.get(filename);
+        if (!Files.isReadable(path)) {
+            System.err.println("Error loading snapshot: cannot read " + filename);
+            return;
+        }
+        long t0 = metrics.start(FleetOperation.LOAD);
+        locks.write().lock();
+        try {
+            // Replaces the fleet only once the whole snapshot has been read
+            Map<String, Vehicle> loaded = new LinkedHashMap<>();
+            FleetSnapshot.read(path, v -> {
+                if (loaded.putIfAbsent(v.getId(), v) != null) throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
+            });
+            replaceFleet(loaded.values());
+            System.out.println("Loaded " + index.size() + " vehicles from snapshot " + filename);
+            journalReset();
         } catch (IOException e) {
-            System.err.println("Error loading fleet: " + e.getMessage());
+            System.err.println("Error loading snapshot: " + e);
+        } finally {
+            locks.write().unlock();
+            metrics.end(FleetOperation.LOAD, t0);
+        }
+    }
+
+    // If 'directory' holds a previous journal, replaces the fleet with the state recorded there;
+    // otherwise starts one from the current fleet. From then on every add, remove and
+    // vehicle state change is appended to it.
+    public void enableJournal(String directory) throws IOException {
+        enableJournal(directory, FleetJournal.Durability.WRITE);
+    }
+
+    public void enableJournal(String directory, FleetJournal.Durability durability) throws IOException {
+        locks.write().lock();
+        try {
+            openJournal(directory, durability);
+        } finally {
+            locks.write().unlock();
+        }
+    }
+
+    private void openJournal(String directory, FleetJournal.Durability durability) throws IOException {
+        if (journal != null) throw new IllegalStateException("Journal already enabled");
+        Path dir = Paths.get(directory);
+        if (!FleetJournal.hasState(dir)) {
+            journal = FleetJournal.open(dir, durability, null);
+            journalReset();
+            return;
+        }
+        untrackAll();
+        journal = FleetJournal.open(dir, durability, new FleetJournal.Target() {
+            @Override
+            public void add(Vehicle v) throws InvalidOperationException {
+                if (!track(v)) throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
+            }
+
+            @Override
+            public Vehicle remove(String id) {
+                return untrack(id);
+            }
+
+            @Override
+            public Vehicle find(String id) {
+                return index.get(id);
+            }
+
+            @Override
+            public void restored(Vehicle v) {
+                stats.invalidate();
+                if (columns != null) columns.update(v);
+                if (history != null) history.record(null, v);
+            }
+        });
+        System.out.println("Recovered " + index.size() + " vehicles from journal in " + directory);
+    }
+
+    // Folds the journal into a fresh snapshot on a background thread
+    public Future<?> compactJournal() throws IOException {
+        if (journal == null) throw new IllegalStateException("Journal not enabled");
+        locks.read().lock();
+        try {
+            return journal.compact(new ArrayList<>(index.all()));
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public void flushJournal() throws IOException {
+        if (journal != null) journal.sync();
+    }
+
+    public void closeJournal() throws IOException {
+        locks.write().lock();
+        try {
+            if (journal == null) return;
+            journal.close();
+            journal = null;
+        } finally {
+            locks.write().unlock();
+        }
+    }
+
+    public FleetMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Enables metrics and publishes them as fleet:type=FleetManager,name=<name> on the platform
+    // MBean server, where jconsole or any JMX client can read them
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("fleet", new Hashtable<>(Map.of("type", "FleetManager", "name", name)));
+        metrics.setEnabled(true);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new FleetManagerMonitor(this), objectName);
+        return objectName;
+    }
+
+    // A wholesale load cannot be expressed as journal records; start a new generation from it instead
+    private void journalReset() throws IOException {
+        if (journal == null) return;
+        try {
+            journal.compact(new ArrayList<>(index.all())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Puts the vehicle back to its last journaled state if the journal cannot record the change
+    private void journalChange(FleetEventType type, Vehicle v, double amount) {
+        LoggedState last = logged.get();
+        try {
+            journal.changed(type, v, amount);
+        } catch (UncheckedIOException e) {
+            if (last.vehicle != v) throw e;
+            last.restore(v);
+            locks.read().lock();
+            try {
+                stats.invalidate();
+                if (columns != null) columns.update(v);
+            } finally {
+                locks.read().unlock();
+            }
+            throw e;
+        }
+        if (last.vehicle == v) last.capture(v);
+    }
+
+    private static final class LoggedState {
+        Vehicle vehicle;
+        double mileage, serviced, fuel, cargo;
+        int passengers;
+        boolean maintenance;
+
+        void capture(Vehicle v) {
+            vehicle = v;
+            mileage = v.getCurrentMileage();
+            serviced = v.getLastServiceMileage();
+            fuel = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+            cargo = v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0;
+            passengers = v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+            maintenance = v instanceof Maintainable && ((Maintainable) v).needsMaintenance();
+        }
+
+        void restore(Vehicle v) {
+            try {
+                v.restoreState(mileage, serviced, fuel, passengers, cargo, maintenance);
+            } catch (InvalidOperationException e) {
+                // Captured from the vehicle itself, so never negative
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Swaps in a fully read fleet; IDs are already unique
+    private void replaceFleet(Collection<Vehicle> loaded) {
+        untrackAll();
+        for (Vehicle v : loaded) track(v);
+    }
+
+    // Collects a file's vehicles so the fleet is only replaced after the whole file was read
+    private static class LoadHandler implements MappedCsvReader.LineHandler {
+        final Map<String, Vehicle> vehicles = new LinkedHashMap<>();
+
+        @Override
+        public void onVehicle(Vehicle v, long lineNo) throws InvalidOperationException {
+            if (vehicles.putIfAbsent(v.getId(), v) != null) throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
+        }
+
+        @Override
+        public void onError(long lineNo, Exception e) {
+            System.err.println("Error parsing line " + lineNo + ": " + e.getMessage());
         }
     }
 
     public List<Vehicle> listAll() {
-        return new ArrayList<>(fleet);
+        locks.read().lock();
+        try {
+            return new ArrayList<>(index.all());
+        } finally {
+            locks.read().unlock();
+        }
     }
 
     // new methods for data analysis
 
     public List<Vehicle> getFleetSortedBySpeed() {
-        List<Vehicle> sorted = new ArrayList<>(fleet);
-        sorted.sort(Comparator.comparingDouble(this::safeGetMaxSpeed));
-        return sorted;
+        return getFleetSorted(VehicleOrder.MAX_SPEED);
     }
 
     public List<Vehicle> getFleetSortedByModel() {
-        List<Vehicle> sorted = new ArrayList<>(fleet);
-        sorted.sort(Comparator.comparing(Vehicle::getModel, String.CASE_INSENSITIVE_ORDER));
-        return sorted;
+        return getFleetSorted(VehicleOrder.MODEL);
     }
 
     public List<Vehicle> getFleetSortedByEfficiency() {
-        List<Vehicle> sorted = new ArrayList<>(fleet);
-        sorted.sort(Comparator.comparingDouble(Vehicle::calculateFuelEfficiency));
-        return sorted;
+        return getFleetSorted(VehicleOrder.FUEL_EFFICIENCY);
     }
 
-    public String getFastestAndSlowestSummary() {
-        if (fleet.isEmpty()) return "Fleet is empty.";
-        Vehicle fastest = Collections.max(fleet, Comparator.comparingDouble(this::safeGetMaxSpeed));
-        Vehicle slowest = Collections.min(fleet, Comparator.comparingDouble(this::safeGetMaxSpeed));
-        return String.format("""
-                Fastest Vehicle:
-                  ID: %s | Model: %s | Speed: %.1f km/h
-                Slowest Vehicle:
-                  ID: %s | Model: %s | Speed: %.1f km/h
-                """,
-                fastest.getId(), fastest.getModel(), safeGetMaxSpeed(fastest),
-                slowest.getId(), slowest.getModel(), safeGetMaxSpeed(slowest));
+    public List<Vehicle> getFleetSorted(VehicleOrder order) {
+        long t0 = metrics.start(FleetOperation.SORT);
+        locks.read().lock();
+        try {
+            return sortedViews().get(order).all();
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SORT, t0);
+        }
     }
 
-    private double safeGetMaxSpeed(Vehicle v) {
+    // One page of the fleet in ascending order, without copying the rest
+    public List<Vehicle> getFleetSorted(VehicleOrder order, int offset, int limit) {
+        long t0 = metrics.start(FleetOperation.SORT);
+        locks.read().lock();
         try {
-            return (double) v.getClass().getMethod("getMaxSpeed").invoke(v);
-        } catch (Exception e) {
-            return 0.0;
+            return sortedViews().get(order).page(offset, limit);
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SORT, t0);
         }
     }
 
-    private static double getMileageSafe(Vehicle v) {
-        String[] attempts = {"getCurrMileage", "getCurr_mileage", "getCurrentMileage", "getMileage"};
-        for (String m : attempts) {
-            try {
-                java.lang.reflect.Method method = v.getClass().getMethod(m);
-                Object out = method.invoke(v);
-                if (out instanceof Number) return ((Number) out).doubleValue();
-            } catch (Exception ignored) {}
+    // The k vehicles with the largest key, largest first
+    public List<Vehicle> getTopVehicles(VehicleOrder order, int k) {
+        long t0 = metrics.start(FleetOperation.SORT);
+        locks.read().lock();
+        try {
+            return sortedViews().get(order).largest(k);
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SORT, t0);
         }
-        return 0.0;
     }
 
-    private static String safeInvokeString(Object obj, String methodName) {
+    public List<Vehicle> getBottomVehicles(VehicleOrder order, int k) {
+        long t0 = metrics.start(FleetOperation.SORT);
+        locks.read().lock();
         try {
-            java.lang.reflect.Method m = obj.getClass().getMethod(methodName);
-            Object r = m.invoke(obj);
-            return r == null ? "" : r.toString();
-        } catch (Exception e) {
-            return "";
+            return sortedViews().get(order).smallest(k);
+        } finally {
+            locks.read().unlock();
+            metrics.end(FleetOperation.SORT, t0);
         }
     }
 
-    private static double safeInvokeDouble(Object obj, String methodName) {
+    // Range queries are inclusive at both ends and return vehicles in ascending order
+    public List<Vehicle> getVehiclesBySpeedRange(double min, double max) {
+        locks.read().lock();
         try {
-            java.lang.reflect.Method m = obj.getClass().getMethod(methodName);
-            Object r = m.invoke(obj);
-            if (r instanceof Number) return ((Number) r).doubleValue();
-            return Double.parseDouble(r.toString());
-        } catch (Exception e) {
-            return 0.0;
+            return sortedViews().bySpeed.range(min, max);
+        } finally {
+            locks.read().unlock();
         }
     }
 
-    private static int safeInvokeInt(Object obj, String methodName, int def) {
+    public List<Vehicle> getVehiclesByEfficiencyRange(double min, double max) {
+        locks.read().lock();
         try {
-            java.lang.reflect.Method m = obj.getClass().getMethod(methodName);
-            Object r = m.invoke(obj);
-            if (r instanceof Number) return ((Number) r).intValue();
-            return Integer.parseInt(r.toString());
-        } catch (Exception e) {
-            return def;
+            return sortedViews().byEfficiency.range(min, max);
+        } finally {
+            locks.read().unlock();
         }
     }
 
-    private static boolean safeInvokeBoolean(Object obj, String methodName, boolean def) {
+    public List<Vehicle> getVehiclesByModelRange(String from, String to) {
+        locks.read().lock();
         try {
-            java.lang.reflect.Method m = obj.getClass().getMethod(methodName);
-            Object r = m.invoke(obj);
-            if (r instanceof Boolean) return (Boolean) r;
-            return Boolean.parseBoolean(r.toString());
-        } catch (Exception e) {
-            return def;
+            return sortedViews().byModel.range(from, to);
+        } finally {
+            locks.read().unlock();
+        }
+    }
+
+    public String getFastestAndSlowestSummary() {
+        Vehicle fastest, slowest;
+        locks.read().lock();
+        try {
+            if (index.isEmpty()) return "Fleet is empty.";
+            SortedViews views = sortedViews();
+            fastest = views.bySpeed.firstOfLargest();
+            slowest = views.bySpeed.first();
+        } finally {
+            locks.read().unlock();
+        }
+        return String.format("""
+                Fastest Vehicle:
+                  ID: %s | Model: %s | Speed: %.1f km/h
+                Slowest Vehicle:
+                  ID: %s | Model: %s | Speed: %.1f km/h
+                """,
+                fastest.getId(), fastest.getModel(), fastest.getMaxSpeed(),
+                slowest.getId(), slowest.getModel(), slowest.getMaxSpeed());
+    }
+
+    // Callers hold the read lock, which keeps writers out; the monitor only
+    // stops two readers from building the views at the same time
+    private SortedViews sortedViews() {
+        SortedViews views = sorted;
+        if (views != null) return views;
+        synchronized (this) {
+            if (sorted == null) sorted = new SortedViews(index);
+            return sorted;
         }
     }
 }
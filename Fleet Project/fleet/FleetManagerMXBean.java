@@ -0,0 +1,24 @@
+package fleet;
+
+import java.util.List;
+
+// Management view of a FleetManager, registered with FleetManager.registerMBean
+public interface FleetManagerMXBean {
+    int getVehicleCount();
+
+    int getVehiclesNeedingMaintenance();
+
+    boolean isMetricsEnabled();
+
+    void setMetricsEnabled(boolean enabled);
+
+    int getLatencySampling();
+
+    void setLatencySampling(int every);
+
+    List<OperationMetrics> getOperations();
+
+    List<VehicleTypeOutcomes> getVehicleTypeOutcomes();
+
+    void resetMetrics();
+}
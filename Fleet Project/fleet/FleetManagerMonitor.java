@@ -0,0 +1,56 @@
+package fleet;
+
+import java.util.List;
+
+class FleetManagerMonitor implements FleetManagerMXBean {
+    private final FleetManager fleet;
+
+    FleetManagerMonitor(FleetManager fleet) {
+        this.fleet = fleet;
+    }
+
+    @Override
+    public int getVehicleCount() {
+        return fleet.size();
+    }
+
+    @Override
+    public int getVehiclesNeedingMaintenance() {
+        return fleet.countVehiclesNeedingMaintenance();
+    }
+
+    @Override
+    public boolean isMetricsEnabled() {
+        return fleet.getMetrics().isEnabled();
+    }
+
+    @Override
+    public void setMetricsEnabled(boolean enabled) {
+        fleet.getMetrics().setEnabled(enabled);
+    }
+
+    @Override
+    public int getLatencySampling() {
+        return fleet.getMetrics().getLatencySampling();
+    }
+
+    @Override
+    public void setLatencySampling(int every) {
+        fleet.getMetrics().setLatencySampling(every);
+    }
+
+    @Override
+    public List<OperationMetrics> getOperations() {
+        return fleet.getMetrics().operations();
+    }
+
+    @Override
+    public List<VehicleTypeOutcomes> getVehicleTypeOutcomes() {
+        return fleet.getMetrics().vehicleTypeOutcomes();
+    }
+
+    @Override
+    public void resetMetrics() {
+        fleet.getMetrics().reset();
+    }
+}
@@ -0,0 +1,134 @@
+package fleet;
+
+import interfaces.OperationStatus;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Call counts and latencies per FleetOperation, and move/overload outcomes per vehicle type.
+// Counters are LongAdders and latencies go into LatencyHistograms, so threads recording at
+// the same time never wait on each other. Every call is counted; for the cheap per-vehicle
+// operations only one call in getLatencySampling() is timed, since reading the clock twice
+// costs more than the counting.
+// While disabled, recording is a single volatile read.
+public final class FleetMetrics {
+
+    // Returned by start() while disabled or for an untimed call, so end() knows what to record
+    static final long OFF = Long.MIN_VALUE;
+    static final long UNTIMED = Long.MIN_VALUE + 1;
+
+    private volatile boolean enabled;
+    // One less than the sampling interval, which is a power of two
+    private volatile int sampleMask = 15;
+
+    private final LongAdder[] calls = new LongAdder[FleetOperation.values().length];
+    private final LatencyHistogram[] latency = new LatencyHistogram[FleetOperation.values().length];
+
+    private final Map<Class<?>, Outcomes> byType = new ConcurrentHashMap<>();
+    private final ClassValue<Outcomes> outcomes = new ClassValue<>() {
+        @Override
+        protected Outcomes computeValue(Class<?> type) {
+            return byType.computeIfAbsent(type, t -> new Outcomes());
+        }
+    };
+
+    private static final class Outcomes {
+        final LongAdder moves = new LongAdder();
+        final LongAdder fuelFailures = new LongAdder();
+        final LongAdder overloads = new LongAdder();
+    }
+
+    FleetMetrics() {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = new LongAdder();
+            latency[i] = new LatencyHistogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLatencySampling() {
+        return sampleMask + 1;
+    }
+
+    // Time one call in every (rounded up to a power of two); 1 times every call
+    public void setLatencySampling(int every) {
+        if (every < 1) throw new IllegalArgumentException("Sampling interval must be at least 1");
+        sampleMask = every == 1 ? 0 : Integer.highestOneBit(every - 1) * 2 - 1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i].reset();
+            latency[i].reset();
+        }
+        for (Outcomes o : byType.values()) {
+            o.moves.reset();
+            o.fuelFailures.reset();
+            o.overloads.reset();
+        }
+    }
+
+    long start(FleetOperation op) {
+        if (!enabled) return OFF;
+        int mask = sampleMask;
+        if (op.sampled && mask != 0 && (ThreadLocalRandom.current().nextInt() & mask) != 0) return UNTIMED;
+        return System.nanoTime();
+    }
+
+    void end(FleetOperation op, long start) {
+        if (start == OFF) return;
+        calls[op.ordinal()].increment();
+        if (start != UNTIMED) latency[op.ordinal()].record(System.nanoTime() - start);
+    }
+
+    // Counts the result of a move, cargo load or boarding against the vehicle's type
+    void outcome(Vehicle v, OperationStatus status) {
+        if (!enabled) return;
+        Outcomes o = outcomes.get(v.getClass());
+        switch (status) {
+            case OK: o.moves.increment(); break;
+            case INSUFFICIENT_FUEL: o.fuelFailures.increment(); break;
+            case OVERLOAD: o.overloads.increment(); break;
+            default: break;
+        }
+    }
+
+    public long getCount(FleetOperation op) {
+        return calls[op.ordinal()].sum();
+    }
+
+    public LatencyHistogram getLatency(FleetOperation op) {
+        return latency[op.ordinal()];
+    }
+
+    public List<OperationMetrics> operations() {
+        List<OperationMetrics> out = new ArrayList<>();
+        for (FleetOperation op : FleetOperation.values()) {
+            out.add(new OperationMetrics(op.name(), calls[op.ordinal()].sum(), latency[op.ordinal()]));
+        }
+        return out;
+    }
+
+    public List<VehicleTypeOutcomes> vehicleTypeOutcomes() {
+        List<VehicleTypeOutcomes> out = new ArrayList<>();
+        for (Map.Entry<Class<?>, Outcomes> e : byType.entrySet()) {
+            Outcomes o = e.getValue();
+            out.add(new VehicleTypeOutcomes(e.getKey().getSimpleName(),
+                    o.moves.sum(), o.fuelFailures.sum(), o.overloads.sum()));
+        }
+        out.sort((a, b) -> a.getType().compareTo(b.getType()));
+        return out;
+    }
+}
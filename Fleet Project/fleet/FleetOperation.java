@@ -0,0 +1,21 @@
+package fleet;
+
+// FleetManager calls that FleetMetrics times. MOVE is one vehicle; JOURNEYS is a fleet-wide batch.
+public enum FleetOperation {
+    ADD(true),
+    REMOVE(true),
+    MOVE(true),
+    JOURNEYS(false),
+    REPORT(false),
+    SAVE(false),
+    LOAD(false),
+    SEARCH(true),
+    SORT(false);
+
+    // Cheap, high-rate calls whose latency is sampled rather than timed on every call
+    final boolean sampled;
+
+    FleetOperation(boolean sampled) {
+        this.sampled = sampled;
+    }
+}
@@ -0,0 +1,218 @@
+package fleet;
+
+import vehicles.FixedPoint;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Versioned binary image of the whole fleet, written and read through a FileChannel.
+// Doubles are stored as raw bits and state is restored with Vehicle.restoreState,
+// so a load gives back exactly what was saved, maintenance flags and service mileage included.
+// Version 3 is written; its encoding byte says whether mileage, fuel and cargo are raw doubles
+// or, in fixed-point mode (see FixedPoint), zig-zag varints of whole metres, centilitres and grams.
+// Versions 1 (doubles) and 2 (varints) lack the service mileage and can still be read; their
+// vehicles count their service interval from the mileage they were saved at.
+//
+// Layout (big endian):
+//   int magic, short version, byte encoding (v3 only: 0 doubles, 1 varints),
+//   short typeCount, typeCount x string typeName, long vehicleCount
+//   per vehicle: int length, short typeIndex, string id, string model, double maxSpeed,
+//                mileage, service mileage (v3 only), codec-specific body
+// Strings are an unsigned short byte count followed by UTF-8. The length prefix lets a
+// reader skip records it cannot decode.
+public final class FleetSnapshot {
+    private FleetSnapshot() {}
+
+    static final int MAGIC = 0x464C5453; // "FLTS"
+    static final short VERSION_DOUBLES = 1;
+    static final short VERSION_FIXED = 2;
+    static final short VERSION = 3;
+
+    private static final int BUFFER = 1 << 20;
+    private static final int HEADER = 4 + 2;
+
+    public interface Sink {
+        void accept(Vehicle v) throws Exception;
+    }
+
+    // Writes to a temporary file first and moves it into place, so a crash never leaves a torn snapshot.
+    // Returns the number of vehicles written.
+    public static long write(Path path, Iterable<Vehicle> vehicles) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Map<Class<?>, Short> tags = new HashMap<>();
+        Map<Class<?>, VehicleCodec<?>> codecs = new HashMap<>();
+        long count = 0;
+        boolean fixed = FixedPoint.ENABLED;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+            buf.putInt(MAGIC).putShort(VERSION).put((byte) (fixed ? 1 : 0));
+            VehicleCodec<?>[] types = VehicleCodecs.all().toArray(new VehicleCodec<?>[0]);
+            buf.putShort((short) types.length);
+            for (short i = 0; i < types.length; i++) {
+                putString(buf, types[i].typeName());
+                tags.put(types[i].type(), i);
+            }
+            long countPos = buf.position();
+            buf.putLong(0);
+            for (Vehicle v : vehicles) {
+                VehicleCodec<?> codec = codecs.computeIfAbsent(v.getClass(), VehicleCodecs::forClass);
+                if (codec == null) {
+                    System.err.println("No codec for " + v.getClass().getSimpleName() + ", " + v.getId() + " not saved.");
+                    continue;
+                }
+                byte[] id = v.getId().getBytes(StandardCharsets.UTF_8);
+                byte[] model = v.getModel().getBytes(StandardCharsets.UTF_8);
+                // Fixed-width fields of every built-in record fit well within 128 bytes
+                int needed = 128 + id.length + model.length;
+                if (buf.remaining() < needed) {
+                    drain(ch, buf);
+                    if (buf.capacity() < needed) buf = ByteBuffer.allocateDirect(needed);
+                }
+                int start = buf.position();
+                buf.putInt(0).putShort(tags.get(codec.type()));
+                putVehicle(buf, codec, v, id, model, fixed, true);
+                buf.putInt(start, buf.position() - start - 4);
+                count++;
+            }
+            drain(ch, buf);
+            ByteBuffer c = ByteBuffer.allocate(8).putLong(count);
+            c.flip();
+            ch.write(c, countPos);
+            ch.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    // Feeds every decodable vehicle to the sink; bad records are reported and skipped.
+    // Returns the number of records read.
+    public static long read(Path path, Sink sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader r = new Reader(ch);
+            ByteBuffer buf = r.ensure(HEADER);
+            if (buf.getInt() != MAGIC) throw new IOException("Not a fleet snapshot: " + path);
+            short version = buf.getShort();
+            if (version != VERSION && version != VERSION_FIXED && version != VERSION_DOUBLES) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            boolean service = version == VERSION;
+            boolean fixed = service ? r.ensure(1).get() != 0 : version == VERSION_FIXED;
+            buf = r.ensure(2);
+            int typeCount = buf.getShort();
+            VehicleCodec<?>[] byTag = new VehicleCodec<?>[typeCount];
+            String[] names = new String[typeCount];
+            for (int i = 0; i < typeCount; i++) {
+                buf = r.ensure(2);
+                buf = r.ensure(2 + Short.toUnsignedInt(buf.getShort(buf.position())));
+                names[i] = getString(buf);
+                byTag[i] = VehicleCodecs.forName(names[i]);
+            }
+            buf = r.ensure(8);
+            long count = buf.getLong();
+            for (long n = 1; n <= count; n++) {
+                buf = r.ensure(4);
+                int len = buf.getInt();
+                buf = r.ensure(len);
+                int end = buf.position() + len;
+                try {
+                    int tag = buf.getShort();
+                    VehicleCodec<?> codec = tag >= 0 && tag < typeCount ? byTag[tag] : null;
+                    if (codec == null) {
+                        throw new IllegalArgumentException("Unknown vehicle type: " + (tag >= 0 && tag < typeCount ? names[tag] : tag));
+                    }
+                    sink.accept(getVehicle(buf, codec, fixed, service));
+                } catch (Exception e) {
+                    System.err.println("Error reading record " + n + ": " + e.getMessage());
+                }
+                buf.position(end);
+            }
+            return count;
+        }
+    }
+
+    // Common header plus codec body; shared with FleetJournal
+    static void putVehicle(ByteBuffer buf, VehicleCodec<?> codec, Vehicle v, byte[] id, byte[] model,
+                           boolean fixed, boolean service) {
+        putBytes(buf, id);
+        putBytes(buf, model);
+        buf.putDouble(v.getMaxSpeed());
+        if (fixed) {
+            VehicleCodecs.putUnits(buf, v.getCurrentMileage(), FixedPoint.MILEAGE);
+            if (service) VehicleCodecs.putUnits(buf, v.getLastServiceMileage(), FixedPoint.MILEAGE);
+            VehicleCodecs.writeFixedWith(codec, v, buf);
+        } else {
+            buf.putDouble(v.getCurrentMileage());
+            if (service) buf.putDouble(v.getLastServiceMileage());
+            VehicleCodecs.writeBinaryWith(codec, v, buf);
+        }
+    }
+
+    static Vehicle getVehicle(ByteBuffer buf, VehicleCodec<?> codec, boolean fixed, boolean service) throws Exception {
+        String id = getString(buf);
+        String model = getString(buf);
+        double maxSpeed = buf.getDouble();
+        double mileage = fixed ? VehicleCodecs.getUnits(buf, FixedPoint.MILEAGE) : buf.getDouble();
+        double serviced = !service ? mileage : fixed ? VehicleCodecs.getUnits(buf, FixedPoint.MILEAGE) : buf.getDouble();
+        Vehicle v = fixed ? codec.readFixed(id, model, maxSpeed, mileage, buf) : codec.readBinary(id, model, maxSpeed, mileage, buf);
+        v.restoreServiceMileage(serviced);
+        return v;
+    }
+
+    static void putString(ByteBuffer buf, String s) {
+        putBytes(buf, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void putBytes(ByteBuffer buf, byte[] b) {
+        if (b.length > 0xFFFF) throw new IllegalArgumentException("String too long for snapshot: " + b.length + " bytes");
+        buf.putShort((short) b.length).put(b);
+    }
+
+    static String getString(ByteBuffer buf) {
+        int len = Short.toUnsignedInt(buf.getShort());
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    // Refills a reusable buffer so that at least n bytes are available at its position
+    private static final class Reader {
+        private final FileChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).flip();
+
+        Reader(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        ByteBuffer ensure(int n) throws IOException {
+            if (buf.remaining() >= n) return buf;
+            if (buf.capacity() < n) {
+                ByteBuffer bigger = ByteBuffer.allocateDirect(n);
+                bigger.put(buf);
+                buf = bigger;
+            } else {
+                buf.compact();
+            }
+            while (buf.position() < n) {
+                if (ch.read(buf) < 0) throw new IOException("Truncated snapshot");
+            }
+            buf.flip();
+            return buf;
+        }
+    }
+}
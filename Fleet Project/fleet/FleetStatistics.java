@@ -0,0 +1,187 @@
+package fleet;
+
+import interfaces.Maintainable;
+import vehicles.Vehicle;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running totals behind generateReport and the maintenance queue, updated as vehicles are
+// added, removed, moved and serviced, so a report costs O(types + vehicles due for
+// maintenance) instead of a fleet scan. Changes that bypass the events (journal replay,
+// reordering) mark the totals stale and the next read recomputes them once, from the
+// columnar store's primitive arrays when it is enabled.
+//
+// Moves and maintenance changes arrive from many journeys at once, so they only touch adders
+// and concurrent collections; the monitor is taken by adds, removes, rebuilds and reads.
+// Changes to one vehicle are already serialized by that vehicle's lock.
+class FleetStatistics {
+
+    private final FleetIndex index;
+    private FleetColumns columns;
+
+    private final Map<Class<?>, Long> countByType = new LinkedHashMap<>();
+    private double efficiencySum;
+    // Mileage of the vehicles as added, Kahan-compensated, plus the distance moved since
+    private double mileageSum;
+    private double mileageError;
+    private final DoubleAdder movedKm = new DoubleAdder();
+    // Keyed by fleet position so the report lists them in fleet order
+    private final ConcurrentSkipListMap<Long, Vehicle> needingMaintenance = new ConcurrentSkipListMap<>();
+    private final LongAdder maintenanceCount = new LongAdder();
+    // The same vehicles by how far past their service interval they are, most overdue first
+    private final ConcurrentSkipListSet<Due> dueQueue = new ConcurrentSkipListSet<>((a, b) -> {
+        int c = Double.compare(b.overdueKm, a.overdueKm);
+        return c != 0 ? c : Long.compare(a.position, b.position);
+    });
+    private final Map<String, Due> dueById = new ConcurrentHashMap<>();
+    private boolean stale;
+
+    private static final class Due {
+        final double overdueKm;
+        final long position;
+        final Vehicle vehicle;
+
+        Due(Vehicle v, long position) {
+            this.overdueKm = v.getServiceOverdueKm();
+            this.position = position;
+            this.vehicle = v;
+        }
+    }
+
+    FleetStatistics(FleetIndex index) {
+        this.index = index;
+    }
+
+    synchronized void setColumns(FleetColumns columns) {
+        this.columns = columns;
+    }
+
+    // Call after the vehicle has been indexed
+    synchronized void added(Vehicle v) {
+        countByType.merge(v.getClass(), 1L, Long::sum);
+        efficiencySum += v.calculateFuelEfficiency();
+        addMileage(v.getCurrentMileage());
+        maintenanceChanged(v);
+    }
+
+    // Call before the vehicle is unindexed
+    synchronized void removed(Vehicle v) {
+        countByType.computeIfPresent(v.getClass(), (k, n) -> n == 1 ? null : n - 1);
+        efficiencySum -= v.calculateFuelEfficiency();
+        addMileage(-v.getCurrentMileage());
+        notDue(index.position(v.getId()), v.getId());
+    }
+
+    void moved(Vehicle v, double distance) {
+        movedKm.add(distance);
+        // A due vehicle that keeps driving becomes more overdue
+        if (dueById.containsKey(v.getId())) enqueue(v, index.position(v.getId()));
+    }
+
+    void maintenanceChanged(Vehicle v) {
+        long pos = index.position(v.getId());
+        if (v instanceof Maintainable && ((Maintainable) v).needsMaintenance()) {
+            if (needingMaintenance.put(pos, v) == null) maintenanceCount.increment();
+            enqueue(v, pos);
+        } else {
+            notDue(pos, v.getId());
+        }
+    }
+
+    private void notDue(long pos, String id) {
+        if (needingMaintenance.remove(pos) != null) maintenanceCount.decrement();
+        dequeue(id);
+    }
+
+    private void enqueue(Vehicle v, long position) {
+        dequeue(v.getId());
+        Due d = new Due(v, position);
+        dueQueue.add(d);
+        dueById.put(v.getId(), d);
+    }
+
+    private void dequeue(String id) {
+        Due d = dueById.remove(id);
+        if (d != null) dueQueue.remove(d);
+    }
+
+    synchronized void invalidate() {
+        stale = true;
+    }
+
+    synchronized void clear() {
+        countByType.clear();
+        efficiencySum = 0;
+        mileageSum = 0;
+        mileageError = 0;
+        movedKm.reset();
+        needingMaintenance.clear();
+        maintenanceCount.reset();
+        dueQueue.clear();
+        dueById.clear();
+        stale = false;
+    }
+
+    synchronized Map<Class<?>, Long> countByType() {
+        refresh();
+        return new LinkedHashMap<>(countByType);
+    }
+
+    synchronized double averageEfficiency() {
+        refresh();
+        return index.isEmpty() ? 0.0 : efficiencySum / index.size();
+    }
+
+    synchronized double totalMileage() {
+        refresh();
+        return mileageSum + movedKm.sum();
+    }
+
+    synchronized int maintenanceCount() {
+        refresh();
+        return maintenanceCount.intValue();
+    }
+
+    synchronized List<Vehicle> needingMaintenance() {
+        refresh();
+        return new ArrayList<>(needingMaintenance.values());
+    }
+
+    // Most overdue first
+    synchronized List<Vehicle> maintenanceQueue(int limit) {
+        refresh();
+        List<Vehicle> out = new ArrayList<>(Math.min(limit, dueQueue.size()));
+        for (Due d : dueQueue) {
+            if (out.size() == limit) break;
+            out.add(d.vehicle);
+        }
+        return out;
+    }
+
+    private void addMileage(double x) {
+        double y = x - mileageError;
+        double t = mileageSum + y;
+        mileageError = (t - mileageSum) - y;
+        mileageSum = t;
+    }
+
+    private void refresh() {
+        if (!stale) return;
+        clear();
+        if (columns == null) {
+            for (Vehicle v : index.all()) added(v);
+            return;
+        }
+        for (Map.Entry<Class<?>, Integer> e : columns.countByType().entrySet()) {
+            countByType.put(e.getKey(), (long) e.getValue());
+        }
+        efficiencySum = columns.efficiencySum();
+        addMileage(columns.totalMileage());
+        for (Vehicle v : columns.with(FleetColumns.MAINTENANCE)) maintenanceChanged(v);
+    }
+}
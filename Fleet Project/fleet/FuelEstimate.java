@@ -0,0 +1,90 @@
+package fleet;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+// What a fleet-wide journey would cost for each of several candidate distances, computed
+// without touching any vehicle. Scenario i refers to getDistance(i).
+public final class FuelEstimate {
+    private final double[] distances;
+    private final int vehicleCount;
+    private final double[] fuelNeeded;
+    private final double[] shortfall;
+    private final int[] vehiclesShort;
+    private final double[] longestHours;
+    private final double[] totalHours;
+    private final Map<String, double[]> fuelNeededByType;
+
+    FuelEstimate(double[] distances, int vehicleCount, double[] fuelNeeded, double[] shortfall,
+                 int[] vehiclesShort, double[] longestHours, double[] totalHours,
+                 Map<String, double[]> fuelNeededByType) {
+        this.distances = distances;
+        this.vehicleCount = vehicleCount;
+        this.fuelNeeded = fuelNeeded;
+        this.shortfall = shortfall;
+        this.vehiclesShort = vehiclesShort;
+        this.longestHours = longestHours;
+        this.totalHours = totalHours;
+        this.fuelNeededByType = fuelNeededByType;
+    }
+
+    public int scenarios() {
+        return distances.length;
+    }
+
+    public double getDistance(int i) {
+        return distances[i];
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    // Fuel the whole fleet would burn
+    public double getFuelNeeded(int i) {
+        return fuelNeeded[i];
+    }
+
+    // Fuel missing across the vehicles that could not make it
+    public double getShortfall(int i) {
+        return shortfall[i];
+    }
+
+    public int getVehiclesShort(int i) {
+        return vehiclesShort[i];
+    }
+
+    // When the slowest vehicle would arrive, in hours
+    public double getLongestJourneyHours(int i) {
+        return longestHours[i];
+    }
+
+    public double getAverageJourneyHours(int i) {
+        return vehicleCount == 0 ? 0.0 : totalHours[i] / vehicleCount;
+    }
+
+    public double getFuelNeeded(int i, String type) {
+        double[] perType = fuelNeededByType.get(type);
+        return perType == null ? 0.0 : perType[i];
+    }
+
+    // Vehicle class simple names that appear in the estimate
+    public Set<String> types() {
+        return Collections.unmodifiableSet(fuelNeededByType.keySet());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Fuel estimate for ").append(vehicleCount).append(" vehicles\n");
+        for (int i = 0; i < distances.length; i++) {
+            sb.append(String.format("  %.1f km: %.2f l needed, %d short by %.2f l, longest %.2f h%n",
+                    distances[i], fuelNeeded[i], vehiclesShort[i], shortfall[i], longestHours[i]));
+            for (Map.Entry<String, double[]> e : fuelNeededByType.entrySet()) {
+                sb.append(String.format("    %s: %.2f l%n", e.getKey(), e.getValue()[i]));
+            }
+        }
+        return sb.toString();
+    }
+}
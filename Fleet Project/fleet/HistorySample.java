@@ -0,0 +1,53 @@
+package fleet;
+
+import events.FleetEventType;
+
+// State of one vehicle right after an event, as kept by FleetHistory
+public final class HistorySample {
+    private final long timeMillis;
+    private final FleetEventType event;
+    private final double mileage;
+    private final double fuelLevel;
+    private final double cargo;
+    private final int passengers;
+
+    HistorySample(long timeMillis, FleetEventType event, double mileage, double fuelLevel, double cargo, int passengers) {
+        this.timeMillis = timeMillis;
+        this.event = event;
+        this.mileage = mileage;
+        this.fuelLevel = fuelLevel;
+        this.cargo = cargo;
+        this.passengers = passengers;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    // What changed; null for the starting state recorded when history began for the vehicle
+    public FleetEventType getEvent() {
+        return event;
+    }
+
+    public double getMileage() {
+        return mileage;
+    }
+
+    public double getFuelLevel() {
+        return fuelLevel;
+    }
+
+    public double getCargo() {
+        return cargo;
+    }
+
+    public int getPassengers() {
+        return passengers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d %s: mileage %.2f, fuel %.2f, cargo %.2f, passengers %d",
+                timeMillis, event == null ? "START" : event, mileage, fuelLevel, cargo, passengers);
+    }
+}
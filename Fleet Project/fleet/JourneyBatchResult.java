@@ -0,0 +1,96 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of one startAllJourneys run: what happened to each vehicle, plus totals and timing.
+// Outcomes are indexed in the order the vehicles were dispatched.
+public final class JourneyBatchResult {
+    private final double distance;
+    private final String[] ids;
+    private final JourneyOutcome[] outcomes;
+    private final double totalDistance;
+    private final double totalFuelUsed;
+    private final long elapsedNanos;
+    private final boolean dryRun;
+    private final Map<JourneyOutcome, Integer> counts = new EnumMap<>(JourneyOutcome.class);
+
+    JourneyBatchResult(double distance, String[] ids, JourneyOutcome[] outcomes,
+                       double totalDistance, double totalFuelUsed, long elapsedNanos) {
+        this(distance, ids, outcomes, totalDistance, totalFuelUsed, elapsedNanos, false);
+    }
+
+    JourneyBatchResult(double distance, String[] ids, JourneyOutcome[] outcomes,
+                       double totalDistance, double totalFuelUsed, long elapsedNanos, boolean dryRun) {
+        this.distance = distance;
+        this.dryRun = dryRun;
+        this.ids = ids;
+        this.outcomes = outcomes;
+        this.totalDistance = totalDistance;
+        this.totalFuelUsed = totalFuelUsed;
+        this.elapsedNanos = elapsedNanos;
+        for (JourneyOutcome o : JourneyOutcome.values()) counts.put(o, 0);
+        for (JourneyOutcome o : outcomes) counts.merge(o, 1, Integer::sum);
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    // True if nothing was moved and the outcomes are predictions
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getVehicleId(int i) {
+        return ids[i];
+    }
+
+    public JourneyOutcome getOutcome(int i) {
+        return outcomes[i];
+    }
+
+    public int count(JourneyOutcome outcome) {
+        return counts.get(outcome);
+    }
+
+    public List<String> idsWith(JourneyOutcome outcome) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (outcomes[i] == outcome) out.add(ids[i]);
+        }
+        return out;
+    }
+
+    // Sum of the distance covered by the vehicles that actually moved
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getTotalFuelUsed() {
+        return totalFuelUsed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getVehiclesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : ids.length * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return (dryRun ? "Dry run: " : "") + String.format("Journeys of %.1f km: %d dispatched, %d succeeded, %d out of fuel, %d invalid, %d failed; "
+                        + "%.1f km covered, %.2f l fuel used in %.1f ms",
+                distance, ids.length, count(JourneyOutcome.SUCCESS), count(JourneyOutcome.INSUFFICIENT_FUEL),
+                count(JourneyOutcome.INVALID_OPERATION), count(JourneyOutcome.FAILED),
+                totalDistance, totalFuelUsed, elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,8 @@
+package fleet;
+
+public enum JourneyOutcome {
+    SUCCESS,
+    INSUFFICIENT_FUEL,
+    INVALID_OPERATION,
+    FAILED
+}
@@ -0,0 +1,357 @@
+package fleet;
+
+import events.FleetEventType;
+import events.FleetEvents;
+import exceptions.InvalidOperationException;
+import interfaces.FuelConsumable;
+import interfaces.OperationStatus;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Discrete-event simulation of journeys in simulated time (hours). A journey departs, takes
+// estimateJourneyTime(distance) of the vehicle's kind, and only burns fuel and adds mileage
+// when it arrives, through tryMove under the manager's vehicle lock. A vehicle makes one
+// journey at a time; a departure that finds it on the road waits for it to arrive. A vehicle
+// without the fuel for its next journey does not depart and is parked.
+//
+// The simulation covers the vehicles in the fleet when it was created. They never interact,
+// so they are split into partitions of at most PARTITION_SIZE vehicles that each advance their
+// own event queue; a small queue and the vehicles behind it stay in cache, which matters more
+// than the thread count. runParallel spreads the partitions over the common pool.
+// Random trips draw from a generator per vehicle, seeded from the simulation seed and the
+// vehicle's position, and totals are summed per vehicle in fleet order, so a seed gives the
+// same result whatever the number of partitions.
+public final class JourneySimulator {
+
+    private static final double NONE = Double.NaN;
+    private static final int PARTITION_SIZE = 1024;
+
+    private final FleetManager fleet;
+    private final Vehicle[] vehicles;
+    private final int n;
+
+    // Per vehicle: time of its next event (NaN if none), the distance of the journey it is
+    // on (NaN when not travelling), planned departures, generator state and parked flag
+    private final double[] eventTime;
+    private final double[] travellingKm;
+    private final PriorityQueue<double[]>[] plans;
+    private final long[] rng;
+    private final boolean[] parked;
+    // Built on the first schedule() call
+    private Map<String, Integer> slots;
+
+    private double now;
+
+    private boolean randomTrips;
+    private double minKm, maxKm, minDwell, maxDwell;
+
+    // Filled in by the run in progress
+    private int[] journeys;
+    private int[] failures;
+    private double[] km;
+    private double[] fuel;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JourneySimulator(FleetManager fleet, long seed) {
+        this.fleet = fleet;
+        List<Vehicle> all = fleet.listAll();
+        this.vehicles = all.toArray(new Vehicle[0]);
+        this.n = vehicles.length;
+        this.eventTime = new double[n];
+        this.travellingKm = new double[n];
+        this.plans = new PriorityQueue[n];
+        this.rng = new long[n];
+        this.parked = new boolean[n];
+        for (int s = 0; s < n; s++) {
+            eventTime[s] = NONE;
+            travellingKm[s] = NONE;
+            rng[s] = seed ^ (s * 0xD1B54A32D192ED03L);
+        }
+    }
+
+    public double now() {
+        return now;
+    }
+
+    public int vehicleCount() {
+        return n;
+    }
+
+    // Plans a journey of 'distance' km for the vehicle, leaving at 'departAt' hours or as soon
+    // as it is free after that
+    public void schedule(String vehicleId, double departAt, double distance) throws InvalidOperationException {
+        if (!(distance >= 0)) throw new InvalidOperationException("Distance cannot be negative.");
+        int s = slotOf(vehicleId);
+        if (plans[s] == null) plans[s] = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        plans[s].add(new double[] {Math.max(departAt, now), distance});
+        parked[s] = false;
+        if (Double.isNaN(travellingKm[s])) eventTime[s] = plans[s].peek()[0];
+    }
+
+    // From now on every vehicle without planned journeys keeps making trips of minKm..maxKm,
+    // resting minDwell..maxDwell hours between them. First departures are spread over the
+    // first maxDwell hours.
+    public void startRandomTrips(double minKm, double maxKm, double minDwellHours, double maxDwellHours) {
+        if (!(minKm >= 0 && maxKm >= minKm)) throw new IllegalArgumentException("Bad trip length range " + minKm + ".." + maxKm);
+        if (!(minDwellHours >= 0 && maxDwellHours >= minDwellHours)) {
+            throw new IllegalArgumentException("Bad dwell range " + minDwellHours + ".." + maxDwellHours);
+        }
+        // Trips of no length with no rest would repeat at the same instant forever
+        if (maxKm == 0 && maxDwellHours == 0) {
+            throw new IllegalArgumentException("Random trips need a length or a dwell time to advance the clock");
+        }
+        this.randomTrips = true;
+        this.minKm = minKm;
+        this.maxKm = maxKm;
+        this.minDwell = minDwellHours;
+        this.maxDwell = maxDwellHours;
+        for (int s = 0; s < n; s++) {
+            if (Double.isNaN(eventTime[s]) && !parked[s]) eventTime[s] = now + nextDouble(s) * maxDwellHours;
+        }
+    }
+
+    // Vehicles finish the journey they are on; random departures already scheduled are dropped
+    public void stopRandomTrips() {
+        randomTrips = false;
+    }
+
+    // Advances the simulation by 'hours' on the calling thread
+    public SimulationResult run(double hours) {
+        return run(hours, null, 1);
+    }
+
+    public SimulationResult runParallel(double hours) {
+        return run(hours, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    // Advances the simulation by 'hours', with the vehicles split into at least 'partitions'
+    // contiguous ranges run on the executor (or the calling thread if it is null)
+    public SimulationResult run(double hours, ExecutorService executor, int partitions) {
+        if (!(hours >= 0)) throw new IllegalArgumentException("Simulated time cannot go backwards");
+        long start = System.nanoTime();
+        double from = now;
+        double until = now + hours;
+        journeys = new int[n];
+        failures = new int[n];
+        km = new double[n];
+        fuel = new double[n];
+        long events = 0;
+        int parts = Math.max(1, Math.min(n, Math.max(partitions, (n + PARTITION_SIZE - 1) / PARTITION_SIZE)));
+        if (executor == null) {
+            for (int p = 0; p < parts; p++) events += advance(lo(p, parts), lo(p + 1, parts), until);
+        } else {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int p = 0; p < parts; p++) {
+                int lo = lo(p, parts), hi = lo(p + 1, parts);
+                futures.add(executor.submit(() -> advance(lo, hi, until)));
+            }
+            for (Future<Long> f : futures) events += join(f);
+        }
+        now = until;
+
+        long done = 0, failed = 0;
+        int moved = 0, travelling = 0, stopped = 0;
+        double totalKm = 0, totalFuel = 0;
+        for (int s = 0; s < n; s++) {
+            done += journeys[s];
+            failed += failures[s];
+            totalKm += km[s];
+            totalFuel += fuel[s];
+            if (journeys[s] > 0) moved++;
+            if (!Double.isNaN(travellingKm[s])) travelling++;
+            if (parked[s]) stopped++;
+        }
+        if (moved > 0) FleetEvents.sink().onBatch(FleetEventType.MOVED, moved, totalKm);
+        return new SimulationResult(from, until, n, events, done, failed, totalKm, totalFuel,
+                travelling, stopped, System.nanoTime() - start);
+    }
+
+    private int lo(int p, int parts) {
+        return (int) ((long) n * p / parts);
+    }
+
+    // Runs the events of vehicles lo..hi up to 'until'; returns how many were handled
+    private long advance(int lo, int hi, double until) {
+        EventQueue queue = new EventQueue(eventTime, hi - lo);
+        for (int s = lo; s < hi; s++) {
+            if (!Double.isNaN(eventTime[s])) queue.push(s);
+        }
+        long events = 0;
+        FleetEvents.beginBatch();
+        try {
+            while (!queue.isEmpty() && eventTime[queue.peek()] <= until) {
+                int s = queue.pop();
+                double t = eventTime[s];
+                events++;
+                if (Double.isNaN(travellingKm[s])) depart(s, t);
+                else arrive(s, t);
+                if (!Double.isNaN(eventTime[s])) queue.push(s);
+            }
+        } finally {
+            FleetEvents.endBatch();
+        }
+        return events;
+    }
+
+    private void depart(int s, double t) {
+        double distance;
+        PriorityQueue<double[]> plan = plans[s];
+        if (plan != null && !plan.isEmpty()) {
+            distance = plan.poll()[1];
+        } else if (randomTrips) {
+            distance = minKm + nextDouble(s) * (maxKm - minKm);
+        } else {
+            eventTime[s] = NONE;
+            return;
+        }
+        Vehicle v = vehicles[s];
+        if (v instanceof FuelConsumable) {
+            FuelConsumable fc = (FuelConsumable) v;
+            if (fc.fuelRequired(distance) > fc.getFuelLevel()) {
+                failures[s]++;
+                parked[s] = true;
+                next(s, t);
+                return;
+            }
+        }
+        try {
+            eventTime[s] = t + v.estimateJourneyTime(distance);
+            travellingKm[s] = distance;
+        } catch (InvalidOperationException e) {
+            failures[s]++;
+            next(s, t);
+        }
+    }
+
+    private void arrive(int s, double t) {
+        double distance = travellingKm[s];
+        travellingKm[s] = NONE;
+        double burned;
+        try {
+            burned = fleet.withVehicle(vehicles[s].getId(), v -> {
+                double before = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+                if (v.tryMove(distance) != OperationStatus.OK) return -1.0;
+                return v instanceof FuelConsumable ? before - ((FuelConsumable) v).getFuelLevel() : 0.0;
+            });
+        } catch (InvalidOperationException e) {
+            // Removed from the fleet while on the road
+            failures[s]++;
+            parked[s] = true;
+            eventTime[s] = NONE;
+            return;
+        }
+        if (burned >= 0) {
+            journeys[s]++;
+            km[s] += distance;
+            fuel[s] += burned;
+        } else {
+            failures[s]++;
+            parked[s] = true;
+        }
+        next(s, t);
+    }
+
+    // Planned journeys go first; parked vehicles only leave for planned ones
+    private void next(int s, double t) {
+        PriorityQueue<double[]> plan = plans[s];
+        if (plan != null && !plan.isEmpty()) {
+            eventTime[s] = Math.max(t, plan.peek()[0]);
+        } else if (randomTrips && !parked[s]) {
+            eventTime[s] = t + minDwell + nextDouble(s) * (maxDwell - minDwell);
+        } else {
+            eventTime[s] = NONE;
+        }
+    }
+
+    // SplitMix64 step on the vehicle's own generator
+    private double nextDouble(int s) {
+        long z = (rng[s] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private int slotOf(String id) throws InvalidOperationException {
+        if (slots == null) {
+            slots = new HashMap<>(n * 2);
+            for (int s = 0; s < n; s++) slots.put(vehicles[s].getId(), s);
+        }
+        Integer s = slots.get(id);
+        if (s == null) throw new InvalidOperationException("Vehicle with ID " + id + " is not part of this simulation.");
+        return s;
+    }
+
+    private static long join(Future<Long> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation partition failed", e.getCause());
+        }
+    }
+
+    // Binary min-heap of vehicle slots keyed by eventTime, ties broken by slot.
+    // A slot's time must not change while it is in the heap.
+    private static final class EventQueue {
+        private final double[] time;
+        private final int[] heap;
+        private int size;
+
+        EventQueue(double[] time, int capacity) {
+            this.time = time;
+            this.heap = new int[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void push(int slot) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(slot, heap[parent])) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = slot;
+        }
+
+        int pop() {
+            int top = heap[0];
+            int last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && before(heap[child + 1], heap[child])) child++;
+                if (!before(heap[child], last)) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (size > 0) heap[i] = last;
+            return top;
+        }
+
+        private boolean before(int a, int b) {
+            double ta = time[a], tb = time[b];
+            return ta < tb || (ta == tb && a < b);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import vehicles.*;
 import exceptions.InvalidOperationException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class Main {
@@ -135,14 +136,9 @@ public class Main {
         System.out.print("Refuel amount to add to each fuel-capable vehicle (liters): ");
         try {
             double amt = Double.parseDouble(in.nextLine().trim());
-            for (Vehicle v : manager.listAll()) {
-                if (v instanceof interfaces.FuelConsumable) {
-                    try {
-                        ((interfaces.FuelConsumable) v).refuel(amt);
-                    } catch (Exception e) {
-                        System.err.println("Refuel failed for " + v.getId() + ": " + e.getMessage());
-                    }
-                }
+            BulkResult result = manager.refuelAll(null, RefuelPolicy.TOP_UP, amt);
+            for (Map.Entry<String, interfaces.OperationStatus> f : result.getFailures().entrySet()) {
+                System.err.println("Refuel failed for " + f.getKey() + ": " + f.getValue());
             }
         } catch (Exception e) {
             System.err.println("Invalid amount.");
@@ -206,14 +202,14 @@ public class Main {
     private static void sortBySpeedCLI() {
         System.out.println("---- Fleet Sorted by Maximum Speed ----");
         for (Vehicle v : manager.getFleetSortedBySpeed()) {
-            System.out.printf("%s | %s | %.1f km/h%n", v.getId(), v.getModel(), getSpeedSafe(v));
+            System.out.printf("%s | %s | %.1f km/h%n", v.getId(), v.getModel(), v.getMaxSpeed());
         }
     }
 
     private static void sortByModelCLI() {
         System.out.println("---- Fleet Sorted by Model Name ----");
         for (Vehicle v : manager.getFleetSortedByModel()) {
-            System.out.printf("%s | %s | %.1f km/h%n", v.getId(), v.getModel(), getSpeedSafe(v));
+            System.out.printf("%s | %s | %.1f km/h%n", v.getId(), v.getModel(), v.getMaxSpeed());
         }
     }
 
@@ -223,12 +219,4 @@ public class Main {
             System.out.printf("%s | %s | %.2f km/l%n", v.getId(), v.getModel(), v.calculateFuelEfficiency());
         }
     }
-
-    private static double getSpeedSafe(Vehicle v) {
-        try {
-            return (double) v.getClass().getMethod("getMaxSpeed").invoke(v);
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }
 }
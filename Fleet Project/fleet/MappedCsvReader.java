@@ -0,0 +1,280 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streams a saved fleet file through a sliding memory-mapped window.
+// Fields are tokenized in place: only id and model become Strings, numbers are
+// parsed straight from the mapped bytes, and nothing is kept once a line is handed off.
+final class MappedCsvReader implements FieldReader {
+
+    interface LineHandler {
+        void onVehicle(Vehicle v, long lineNo) throws Exception;
+
+        void onError(long lineNo, Exception e);
+    }
+
+    // Gets the fields of every non-blank line, for files that are not saved fleets
+    interface FieldHandler {
+        void onLine(FieldReader fields, long lineNo) throws Exception;
+
+        void onError(long lineNo, Exception e);
+    }
+
+    static final int DEFAULT_WINDOW = 64 << 20;
+
+    // Largest power of ten that is exact in a double
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final int window;
+    private MappedByteBuffer buf;
+    private FieldHandler handler;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fields;
+    private byte[] scratch = new byte[256];
+
+    // Type names repeat on every line, so decoded copies are reused
+    private final byte[][] cachedBytes = new byte[16][];
+    private final String[] cachedText = new String[16];
+    private int cached;
+
+    MappedCsvReader() {
+        this(DEFAULT_WINDOW);
+    }
+
+    MappedCsvReader(int window) {
+        this.window = window;
+    }
+
+    // Returns the number of lines read
+    long read(Path path, LineHandler handler) throws IOException {
+        return read(path, vehicles(handler));
+    }
+
+    long read(Path path, FieldHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(ch, 0, ch.size(), 0, handler);
+        }
+    }
+
+    // Reads the lines in [from, to); both ends must sit on line boundaries.
+    // firstLineNo is the number of lines before 'from', so reported line numbers are file-global.
+    long read(FileChannel ch, long from, long to, long firstLineNo, LineHandler handler) throws IOException {
+        return read(ch, from, to, firstLineNo, vehicles(handler));
+    }
+
+    long read(FileChannel ch, long from, long to, long firstLineNo, FieldHandler handler) throws IOException {
+        this.handler = handler;
+        long lineNo = firstLineNo;
+        long pos = from;
+        int size = window;
+        while (pos < to) {
+            int len = (int) Math.min(size, to - pos);
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            boolean last = pos + len >= to;
+            int lineStart = 0;
+            int i = 0;
+            while (i < len) {
+                byte b = buf.get(i);
+                if (b != '\n' && b != '\r') {
+                    i++;
+                    continue;
+                }
+                int next = i + 1;
+                if (b == '\r') {
+                    // A trailing '\r' may be the first half of "\r\n" split across windows
+                    if (next == len && !last) break;
+                    if (next < len && buf.get(next) == '\n') next++;
+                }
+                lineNo++;
+                handleLine(lineStart, i, lineNo);
+                lineStart = next;
+                i = next;
+            }
+            if (last && lineStart < len) {
+                lineNo++;
+                handleLine(lineStart, len, lineNo);
+                lineStart = len;
+            }
+            if (lineStart == 0 && !last) {
+                // A single line longer than the window; retry with a bigger mapping
+                size = (int) Math.min((long) size * 2, Integer.MAX_VALUE - 8);
+                continue;
+            }
+            pos += lineStart;
+            size = window;
+        }
+        buf = null;
+        this.handler = null;
+        return lineNo - firstLineNo;
+    }
+
+    private static FieldHandler vehicles(LineHandler handler) {
+        return new FieldHandler() {
+            @Override
+            public void onLine(FieldReader fields, long lineNo) throws Exception {
+                Vehicle v = VehicleFactory.createVehicle(fields);
+                if (v != null) handler.onVehicle(v, lineNo);
+            }
+
+            @Override
+            public void onError(long lineNo, Exception e) {
+                handler.onError(lineNo, e);
+            }
+        };
+    }
+
+    private void handleLine(int start, int end, long lineNo) {
+        while (start < end && (buf.get(start) & 0xff) <= ' ') start++;
+        while (end > start && (buf.get(end - 1) & 0xff) <= ' ') end--;
+        if (start == end) return;
+        tokenize(start, end);
+        try {
+            handler.onLine(this, lineNo);
+        } catch (Exception e) {
+            handler.onError(lineNo, e);
+        }
+    }
+
+    private void tokenize(int start, int end) {
+        fields = 0;
+        int fs = start;
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) == ',') {
+                addField(fs, i);
+                fs = i + 1;
+            }
+        }
+        addField(fs, end);
+    }
+
+    private void addField(int start, int end) {
+        if (fields == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fields * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fields * 2);
+        }
+        fieldStart[fields] = start;
+        fieldEnd[fields] = end;
+        fields++;
+    }
+
+    @Override
+    public int fieldCount() {
+        return fields;
+    }
+
+    @Override
+    public String text(int idx) {
+        if (idx >= fields) throw new IllegalArgumentException("Missing field " + idx);
+        int len = copy(idx);
+        if (idx == 0) return cachedText(len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private String cachedText(int len) {
+        for (int c = 0; c < cached; c++) {
+            byte[] k = cachedBytes[c];
+            if (k.length == len && Arrays.equals(k, 0, len, scratch, 0, len)) return cachedText[c];
+        }
+        String s = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        if (cached < cachedBytes.length) {
+            cachedBytes[cached] = Arrays.copyOf(scratch, len);
+            cachedText[cached] = s;
+            cached++;
+        }
+        return s;
+    }
+
+    private int copy(int idx) {
+        int len = fieldEnd[idx] - fieldStart[idx];
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        buf.get(fieldStart[idx], scratch, 0, len);
+        return len;
+    }
+
+    @Override
+    public double parseDouble(int idx, double def) {
+        if (idx >= fields) return def;
+        int i = fieldStart[idx], end = fieldEnd[idx];
+        boolean neg = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) neg = buf.get(i++) == '-';
+        long mantissa = 0;
+        int digits = 0, fraction = 0;
+        boolean dot = false, any = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (mantissa == 0 && b == '0') {
+                    if (dot) fraction++;
+                    continue;
+                }
+                if (++digits > 15) return parseDoubleSlow(idx, def);
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) fraction++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                // Exponents, NaN, hex, padding: let the JDK decide
+                return parseDoubleSlow(idx, def);
+            }
+        }
+        if (!any) return parseDoubleSlow(idx, def);
+        if (fraction >= POW10.length) return parseDoubleSlow(idx, def);
+        // Both operands are exact, so a single division is correctly rounded
+        double v = mantissa / POW10[fraction];
+        return neg ? -v : v;
+    }
+
+    private double parseDoubleSlow(int idx, double def) {
+        try {
+            return Double.parseDouble(new String(scratch, 0, copy(idx), StandardCharsets.ISO_8859_1));
+        } catch (Exception e) {
+            return def;
+        }
+    }
+
+    @Override
+    public int parseInt(int idx, int def) {
+        if (idx >= fields) return def;
+        int i = fieldStart[idx], end = fieldEnd[idx];
+        if (i == end) return def;
+        boolean neg = false;
+        byte first = buf.get(i);
+        if (first == '-' || first == '+') {
+            neg = first == '-';
+            if (++i == end) return def;
+        }
+        long v = 0;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') return def;
+            v = v * 10 + (b - '0');
+            if (v > (long) Integer.MAX_VALUE + 1) return def;
+        }
+        if (neg) v = -v;
+        if (v > Integer.MAX_VALUE || v < Integer.MIN_VALUE) return def;
+        return (int) v;
+    }
+
+    @Override
+    public boolean parseBoolean(int idx, boolean def) {
+        if (idx >= fields) return def;
+        int i = fieldStart[idx];
+        if (fieldEnd[idx] - i != 4) return false;
+        return (buf.get(i) | 0x20) == 't' && (buf.get(i + 1) | 0x20) == 'r'
+                && (buf.get(i + 2) | 0x20) == 'u' && (buf.get(i + 3) | 0x20) == 'e';
+    }
+}
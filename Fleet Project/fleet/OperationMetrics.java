@@ -0,0 +1,56 @@
+package fleet;
+
+// Snapshot of one FleetOperation's call count and sampled latency, in microseconds
+public final class OperationMetrics {
+    private final String operation;
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    OperationMetrics(String operation, long count, LatencyHistogram h) {
+        this.operation = operation;
+        this.count = count;
+        this.meanMicros = h.mean() / 1e3;
+        this.p50Micros = h.percentile(50) / 1e3;
+        this.p99Micros = h.percentile(99) / 1e3;
+        this.p999Micros = h.percentile(99.9) / 1e3;
+        this.maxMicros = h.max() / 1e3;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                operation, count, meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,130 @@
+package fleet;
+
+import events.FleetEvents;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Splits a saved fleet file at line boundaries and parses the pieces on a fork-join pool.
+// Results are handed to the LineHandler strictly in file order, so duplicate-ID checks and
+// error messages come out exactly as the sequential loader would produce them.
+final class ParallelCsvLoader {
+
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 32 << 20;
+
+    private final ForkJoinPool pool;
+
+    ParallelCsvLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    void read(FileChannel ch, MappedCsvReader.LineHandler handler) throws IOException {
+        long size = ch.size();
+        int parallelism = pool.getParallelism();
+        long target = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (parallelism * 4L) + 1));
+        // Bounded look-ahead keeps at most a few chunks of parsed vehicles waiting for the merge
+        int maxInFlight = parallelism * 2;
+
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        long linesBefore = 0;
+        long pos = 0;
+        while (pos < size || !inFlight.isEmpty()) {
+            while (pos < size && inFlight.size() < maxInFlight) {
+                long end = nextLineBoundary(ch, Math.min(size, pos + target), size);
+                long from = pos, to = end;
+                inFlight.add(pool.submit(() -> parse(ch, from, to)));
+                pos = end;
+            }
+            Chunk c = join(inFlight.poll());
+            for (int i = 0; i < c.count; i++) {
+                long lineNo = linesBefore + c.lines[i];
+                Object item = c.items.get(i);
+                if (item instanceof Vehicle) {
+                    try {
+                        handler.onVehicle((Vehicle) item, lineNo);
+                    } catch (Exception e) {
+                        handler.onError(lineNo, e);
+                    }
+                } else {
+                    handler.onError(lineNo, (Exception) item);
+                }
+            }
+            linesBefore += c.lineCount;
+        }
+    }
+
+    private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The codecs restore fuel, cargo and passengers through the vehicles' own mutators; the
+    // batch keeps those messages from racing onto the sink from every worker, and the load
+    // reports the vehicle count once the merge is done
+    private static Chunk parse(FileChannel ch, long from, long to) {
+        Chunk c = new Chunk();
+        FleetEvents.beginBatch();
+        try {
+            c.lineCount = new MappedCsvReader().read(ch, from, to, 0, c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            FleetEvents.endBatch();
+        }
+        return c;
+    }
+
+    // First offset after a '\n' at or beyond 'pos' (or the end of the file)
+    private static long nextLineBoundary(FileChannel ch, long pos, long size) throws IOException {
+        if (pos >= size) return size;
+        ByteBuffer b = ByteBuffer.allocate(8192);
+        long p = pos - 1;
+        while (p < size) {
+            b.clear();
+            int n = ch.read(b, p);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (b.get(i) == '\n') return p + i + 1;
+            }
+            p += n;
+        }
+        return size;
+    }
+
+    // Parsed lines of one chunk with chunk-local line numbers
+    private static final class Chunk implements MappedCsvReader.LineHandler {
+        final List<Object> items = new ArrayList<>();
+        long[] lines = new long[256];
+        int count;
+        long lineCount;
+
+        @Override
+        public void onVehicle(Vehicle v, long lineNo) {
+            add(v, lineNo);
+        }
+
+        @Override
+        public void onError(long lineNo, Exception e) {
+            add(e, lineNo);
+        }
+
+        private void add(Object item, long lineNo) {
+            if (count == lines.length) lines = Arrays.copyOf(lines, count * 2);
+            lines[count++] = lineNo;
+            items.add(item);
+        }
+    }
+}
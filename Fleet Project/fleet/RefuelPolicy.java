@@ -0,0 +1,8 @@
+package fleet;
+
+public enum RefuelPolicy {
+    // Add the given amount to every tank
+    TOP_UP,
+    // Fill every tank up to the given level; tanks already at or above it are left alone
+    FILL_TO
+}
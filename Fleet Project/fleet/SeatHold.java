@@ -0,0 +1,86 @@
+package fleet;
+
+import interfaces.OperationStatus;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+// Seats claimed on one vehicle by SeatReservations. A hold lapses at its expiry unless it is
+// confirmed first; a confirmed hold keeps its seats until it is released.
+public final class SeatHold {
+
+    public enum State { HELD, CONFIRMED, RELEASED, EXPIRED, REJECTED }
+
+    private static final State[] STATES = State.values();
+    private static final AtomicIntegerFieldUpdater<SeatHold> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(SeatHold.class, "state");
+
+    private final long id;
+    private final String vehicleId;
+    private final int seats;
+    private final long expiresAt;
+    private final OperationStatus status;
+    final SeatReservations.Ledger ledger;
+    private volatile int state;
+
+    SeatHold(long id, String vehicleId, int seats, long expiresAt, SeatReservations.Ledger ledger) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+        this.status = OperationStatus.OK;
+        this.ledger = ledger;
+        this.state = State.HELD.ordinal();
+    }
+
+    // A hold that claimed nothing, and why
+    SeatHold(String vehicleId, int seats, OperationStatus status) {
+        this.id = -1;
+        this.vehicleId = vehicleId;
+        this.seats = seats;
+        this.expiresAt = 0;
+        this.status = status;
+        this.ledger = null;
+        this.state = State.REJECTED.ordinal();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public State getState() {
+        return STATES[state];
+    }
+
+    // OK for every hold that claimed its seats, otherwise the reason it was refused
+    public OperationStatus getStatus() {
+        return status;
+    }
+
+    // Time left before an unconfirmed hold lapses, 0 once it has
+    public long getRemainingMillis() {
+        return Math.max(0, (expiresAt - System.nanoTime()) / 1_000_000);
+    }
+
+    boolean lapsed(long now) {
+        return now - expiresAt >= 0;
+    }
+
+    boolean transition(State from, State to) {
+        return STATE.compareAndSet(this, from.ordinal(), to.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        return status == OperationStatus.OK
+                ? String.format("Hold %d: %d seats on %s, %s", id, seats, vehicleId, getState())
+                : String.format("Hold of %d seats on %s rejected: %s", seats, vehicleId, status);
+    }
+}
@@ -0,0 +1,229 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import interfaces.OperationStatus;
+import interfaces.PassengerCarrier;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sells the seats of the fleet's PassengerCarriers without locks. Each vehicle gets a ledger
+// the first time it is booked, starting from the passengers already on board; after that every
+// hold, confirm and release is a single atomic update of the ledger, so booking threads never
+// block each other and a vehicle is never sold past getPassengerCapacity().
+//
+// Holds that are not confirmed in time lapse. Their seats come back when expireHolds() runs,
+// or straight away when a vehicle looks full to a new hold.
+//
+// Seats sold here are not boarded. While a vehicle has a ledger, passengers boarded through
+// FleetManager take seats from it like a confirmed hold and give them back when they disembark,
+// so boarding is refused once the vehicle is sold out. A fleet works with one SeatReservations
+// at a time, the one created last.
+public final class SeatReservations {
+
+    private final FleetManager fleet;
+    private final Map<String, Ledger> ledgers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public SeatReservations(FleetManager fleet) {
+        this.fleet = fleet;
+        fleet.reservations = this;
+    }
+
+    // Claims seats for holdMillis; the returned hold says whether it got them
+    public SeatHold tryHold(String vehicleId, int seats, long holdMillis) throws InvalidOperationException {
+        Ledger ledger = ledger(vehicleId);
+        if (!ledger.supported) return new SeatHold(vehicleId, seats, OperationStatus.NOT_SUPPORTED);
+        if (seats <= 0 || holdMillis <= 0) return new SeatHold(vehicleId, seats, OperationStatus.INVALID_AMOUNT);
+        long now = System.nanoTime();
+        if (!ledger.claim(seats) && (ledger.expire(now) == 0 || !ledger.claim(seats))) {
+            return new SeatHold(vehicleId, seats, OperationStatus.OVERLOAD);
+        }
+        SeatHold hold = new SeatHold(nextId.getAndIncrement(), vehicleId, seats,
+                now + TimeUnit.MILLISECONDS.toNanos(holdMillis), ledger);
+        ledger.holds.add(hold);
+        return hold;
+    }
+
+    public SeatHold hold(String vehicleId, int seats, long holdMillis) throws InvalidOperationException, OverloadException {
+        SeatHold hold = tryHold(vehicleId, seats, holdMillis);
+        switch (hold.getStatus()) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Seat count and hold time must be positive.");
+            case NOT_SUPPORTED: throw new InvalidOperationException("Vehicle " + vehicleId + " cannot carry passengers.");
+            case OVERLOAD: throw new OverloadException("Not enough free seats on " + vehicleId + " for " + seats + ".");
+            default: return hold;
+        }
+    }
+
+    // Turns a live hold into a sale; false if it was already confirmed, released or has lapsed
+    public boolean confirm(SeatHold hold) {
+        if (hold.ledger == null) return false;
+        if (hold.lapsed(System.nanoTime())) {
+            if (hold.transition(SeatHold.State.HELD, SeatHold.State.EXPIRED)) hold.ledger.unclaim(hold.getSeats());
+            return false;
+        }
+        if (!hold.transition(SeatHold.State.HELD, SeatHold.State.CONFIRMED)) return false;
+        hold.ledger.confirm(hold.getSeats());
+        return true;
+    }
+
+    // Gives back the seats of a held or confirmed hold; false if they were already given back
+    public boolean release(SeatHold hold) {
+        if (hold.ledger == null) return false;
+        if (hold.transition(SeatHold.State.HELD, SeatHold.State.RELEASED)) {
+            hold.ledger.unclaim(hold.getSeats());
+            return true;
+        }
+        if (hold.transition(SeatHold.State.CONFIRMED, SeatHold.State.RELEASED)) {
+            hold.ledger.unconfirm(hold.getSeats());
+            return true;
+        }
+        return false;
+    }
+
+    // Returns the seats of every lapsed hold and drops finished holds from the ledgers.
+    // Meant to be called periodically, e.g. from a ScheduledExecutorService.
+    public int expireHolds() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Ledger ledger : ledgers.values()) expired += ledger.expire(now);
+        return expired;
+    }
+
+    public int getAvailableSeats(String vehicleId) throws InvalidOperationException {
+        Ledger ledger = ledger(vehicleId);
+        return ledger.supported ? ledger.capacity - Ledger.claimed(ledger.seats.get()) : 0;
+    }
+
+    // Seats in holds not yet confirmed, lapsed ones included until they are expired
+    public int getHeldSeats(String vehicleId) throws InvalidOperationException {
+        long s = ledger(vehicleId).seats.get();
+        return Ledger.claimed(s) - Ledger.confirmed(s);
+    }
+
+    // Seats sold through confirmed holds, not counting passengers on board
+    public int getConfirmedSeats(String vehicleId) throws InvalidOperationException {
+        Ledger ledger = ledger(vehicleId);
+        return Ledger.confirmed(ledger.seats.get()) - ledger.onBoard.get();
+    }
+
+    // Forgets the vehicle's bookings, e.g. after it has departed or been removed. The next hold
+    // on it opens a new ledger from its passengers at that point.
+    public void close(String vehicleId) {
+        ledgers.remove(vehicleId);
+    }
+
+    // Called by FleetManager under the vehicle's lock before it boards passengers; false if the
+    // vehicle has a ledger and not enough unsold seats
+    boolean board(String vehicleId, int passengers) {
+        Ledger ledger = ledgers.get(vehicleId);
+        if (ledger == null || !ledger.supported) return true;
+        if (!ledger.take(passengers) && (ledger.expire(System.nanoTime()) == 0 || !ledger.take(passengers))) {
+            return false;
+        }
+        ledger.onBoard.addAndGet(passengers);
+        return true;
+    }
+
+    // Called by FleetManager under the vehicle's lock after passengers got off, or to undo board()
+    void disembark(String vehicleId, int passengers) {
+        Ledger ledger = ledgers.get(vehicleId);
+        if (ledger == null || !ledger.supported) return;
+        ledger.onBoard.addAndGet(-passengers);
+        ledger.unconfirm(passengers);
+    }
+
+    private Ledger ledger(String vehicleId) throws InvalidOperationException {
+        Ledger ledger = ledgers.get(vehicleId);
+        if (ledger != null) return ledger;
+        // Opened under the vehicle's lock, so no boarding slips in between reading the
+        // passengers and board() seeing the ledger
+        return fleet.withVehicle(vehicleId, v -> ledgers.computeIfAbsent(vehicleId, id -> {
+            if (!(v instanceof PassengerCarrier)) return Ledger.UNSUPPORTED;
+            PassengerCarrier p = (PassengerCarrier) v;
+            return new Ledger(p.getPassengerCapacity(), p.getCurrentPassengers());
+        }));
+    }
+
+    // Seat counts of one vehicle packed in one long: the low half is every seat taken (on board,
+    // held or confirmed), the high half those that are sold (on board or confirmed).
+    // Neither half goes below zero, so adding to one never carries into the other.
+    static final class Ledger {
+        static final Ledger UNSUPPORTED = new Ledger(0, 0, false);
+
+        final int capacity;
+        final AtomicInteger onBoard;
+        final boolean supported;
+        final AtomicLong seats;
+        // Holds that may still be HELD; finished ones are dropped by expire()
+        final ConcurrentLinkedQueue<SeatHold> holds = new ConcurrentLinkedQueue<>();
+
+        Ledger(int capacity, int onBoard) {
+            this(capacity, onBoard, true);
+        }
+
+        private Ledger(int capacity, int onBoard, boolean supported) {
+            this.capacity = capacity;
+            this.onBoard = new AtomicInteger(onBoard);
+            this.supported = supported;
+            this.seats = new AtomicLong(((long) onBoard << 32) | onBoard);
+        }
+
+        static int claimed(long s) {
+            return (int) s;
+        }
+
+        static int confirmed(long s) {
+            return (int) (s >>> 32);
+        }
+
+        boolean claim(int n) {
+            while (true) {
+                long s = seats.get();
+                if (claimed(s) > capacity - n) return false;
+                if (seats.compareAndSet(s, s + n)) return true;
+            }
+        }
+
+        // Claims and sells n seats in one step
+        boolean take(int n) {
+            while (true) {
+                long s = seats.get();
+                if (claimed(s) > capacity - n) return false;
+                if (seats.compareAndSet(s, s + ((long) n << 32) + n)) return true;
+            }
+        }
+
+        void unclaim(int n) {
+            seats.addAndGet(-n);
+        }
+
+        void confirm(int n) {
+            seats.addAndGet((long) n << 32);
+        }
+
+        void unconfirm(int n) {
+            seats.addAndGet(-(((long) n << 32) + n));
+        }
+
+        int expire(long now) {
+            int expired = 0;
+            for (Iterator<SeatHold> it = holds.iterator(); it.hasNext(); ) {
+                SeatHold hold = it.next();
+                if (hold.getState() == SeatHold.State.HELD) {
+                    if (!hold.lapsed(now) || !hold.transition(SeatHold.State.HELD, SeatHold.State.EXPIRED)) continue;
+                    unclaim(hold.getSeats());
+                    expired++;
+                }
+                it.remove();
+            }
+            return expired;
+        }
+    }
+}
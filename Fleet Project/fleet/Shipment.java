@@ -0,0 +1,35 @@
+package fleet;
+
+// A consignment for CargoConsolidator. Divisible shipments (bulk goods) may be split across
+// vehicles; the others travel whole.
+public final class Shipment {
+    private final String id;
+    private final double weight;
+    private final boolean divisible;
+
+    public Shipment(String id, double weight, boolean divisible) {
+        if (id == null || id.trim().isEmpty()) throw new IllegalArgumentException("Shipment ID cannot be empty");
+        if (!(weight > 0) || Double.isInfinite(weight)) throw new IllegalArgumentException("Shipment weight must be positive: " + id);
+        this.id = id;
+        this.weight = weight;
+        this.divisible = divisible;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // kg
+    public double getWeight() {
+        return weight;
+    }
+
+    public boolean isDivisible() {
+        return divisible;
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + weight + " kg" + (divisible ? ", divisible)" : ")");
+    }
+}
@@ -0,0 +1,89 @@
+package fleet;
+
+// Totals for one JourneySimulator run, over simulated hours [from, until]
+public final class SimulationResult {
+    private final double fromHours;
+    private final double untilHours;
+    private final int vehicles;
+    private final long events;
+    private final long journeys;
+    private final long failedJourneys;
+    private final double distance;
+    private final double fuelUsed;
+    private final int travelling;
+    private final int parked;
+    private final long elapsedNanos;
+
+    SimulationResult(double fromHours, double untilHours, int vehicles, long events, long journeys,
+                     long failedJourneys, double distance, double fuelUsed, int travelling, int parked,
+                     long elapsedNanos) {
+        this.fromHours = fromHours;
+        this.untilHours = untilHours;
+        this.vehicles = vehicles;
+        this.events = events;
+        this.journeys = journeys;
+        this.failedJourneys = failedJourneys;
+        this.distance = distance;
+        this.fuelUsed = fuelUsed;
+        this.travelling = travelling;
+        this.parked = parked;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getFromHours() {
+        return fromHours;
+    }
+
+    public double getUntilHours() {
+        return untilHours;
+    }
+
+    public int getVehicleCount() {
+        return vehicles;
+    }
+
+    // Departures and arrivals handled
+    public long getEvents() {
+        return events;
+    }
+
+    // Journeys that arrived during the run
+    public long getJourneys() {
+        return journeys;
+    }
+
+    // Journeys that could not start or finish, mostly for lack of fuel
+    public long getFailedJourneys() {
+        return failedJourneys;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getFuelUsed() {
+        return fuelUsed;
+    }
+
+    // Still on the road at the end of the run
+    public int getTravelling() {
+        return travelling;
+    }
+
+    // Stopped for lack of fuel or because they left the fleet
+    public int getParked() {
+        return parked;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Simulated %.1f h to %.1f h for %d vehicles: %d journeys (%d failed), %.2f km, %.2f l fuel, "
+                        + "%d on the road, %d parked; %d events in %.1f ms",
+                untilHours - fromHours, untilHours, vehicles, journeys, failedJourneys, distance, fuelUsed,
+                travelling, parked, events, elapsedNanos / 1e6);
+    }
+}
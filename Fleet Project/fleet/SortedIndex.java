@@ -0,0 +1,99 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Vehicles ordered by an immutable key, ties broken by fleet position so iteration
+// matches a stable sort of the fleet. Kept up to date on add/remove instead of
+// copying and re-sorting the fleet for every query.
+final class SortedIndex<K> {
+
+    private static final class Entry<K> {
+        final K key;
+        final long position;
+        final Vehicle vehicle;
+
+        Entry(K key, long position, Vehicle vehicle) {
+            this.key = key;
+            this.position = position;
+            this.vehicle = vehicle;
+        }
+    }
+
+    private final Function<Vehicle, K> keyOf;
+    private final TreeSet<Entry<K>> entries;
+    private final Map<String, Entry<K>> byId = new HashMap<>();
+
+    SortedIndex(Function<Vehicle, K> keyOf, Comparator<? super K> keyOrder) {
+        this.keyOf = keyOf;
+        this.entries = new TreeSet<>((a, b) -> {
+            int c = keyOrder.compare(a.key, b.key);
+            return c != 0 ? c : Long.compare(a.position, b.position);
+        });
+    }
+
+    void add(Vehicle v, long position) {
+        Entry<K> e = new Entry<>(keyOf.apply(v), position, v);
+        Entry<K> old = byId.put(v.getId(), e);
+        if (old != null) entries.remove(old);
+        entries.add(e);
+    }
+
+    void remove(String id) {
+        Entry<K> e = byId.remove(id);
+        if (e != null) entries.remove(e);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Elements offset..offset+limit-1 in ascending order
+    List<Vehicle> page(int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must not be negative");
+        List<Vehicle> out = new ArrayList<>(Math.min(limit, Math.max(0, entries.size() - offset)));
+        Iterator<Entry<K>> it = entries.iterator();
+        for (int i = 0; i < offset && it.hasNext(); i++) it.next();
+        while (out.size() < limit && it.hasNext()) out.add(it.next().vehicle);
+        return out;
+    }
+
+    List<Vehicle> all() {
+        return page(0, entries.size());
+    }
+
+    // The k largest, largest first
+    List<Vehicle> largest(int k) {
+        if (k < 0) throw new IllegalArgumentException("k must not be negative");
+        List<Vehicle> out = new ArrayList<>(Math.min(k, entries.size()));
+        Iterator<Entry<K>> it = entries.descendingIterator();
+        while (out.size() < k && it.hasNext()) out.add(it.next().vehicle);
+        return out;
+    }
+
+    List<Vehicle> smallest(int k) {
+        return page(0, k);
+    }
+
+    // Keys in [from, to], ascending
+    List<Vehicle> range(K from, K to) {
+        List<Vehicle> out = new ArrayList<>();
+        Entry<K> lo = new Entry<>(from, Long.MIN_VALUE, null);
+        Entry<K> hi = new Entry<>(to, Long.MAX_VALUE, null);
+        if (entries.comparator().compare(lo, hi) > 0) return out;
+        for (Entry<K> e : entries.subSet(lo, true, hi, true)) out.add(e.vehicle);
+        return out;
+    }
+
+    Vehicle first() {
+        return entries.isEmpty() ? null : entries.first().vehicle;
+    }
+
+    // First vehicle in fleet order among those with the largest key
+    Vehicle firstOfLargest() {
+        if (entries.isEmpty()) return null;
+        return entries.ceiling(new Entry<>(entries.last().key, Long.MIN_VALUE, null)).vehicle;
+    }
+}
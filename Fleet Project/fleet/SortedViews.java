@@ -0,0 +1,40 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+import java.util.Comparator;
+
+// One SortedIndex per VehicleOrder. All keys are fixed when a vehicle is created,
+// so only adds and removes have to be applied.
+final class SortedViews {
+
+    final SortedIndex<Double> bySpeed = new SortedIndex<>(Vehicle::getMaxSpeed, Comparator.naturalOrder());
+    final SortedIndex<String> byModel = new SortedIndex<>(Vehicle::getModel, String.CASE_INSENSITIVE_ORDER);
+    final SortedIndex<Double> byEfficiency =
+            new SortedIndex<>(Vehicle::calculateFuelEfficiency, Comparator.naturalOrder());
+
+    SortedViews(FleetIndex index) {
+        for (Vehicle v : index.all()) add(v, index.position(v.getId()));
+    }
+
+    void add(Vehicle v, long position) {
+        bySpeed.add(v, position);
+        byModel.add(v, position);
+        byEfficiency.add(v, position);
+    }
+
+    void remove(String id) {
+        bySpeed.remove(id);
+        byModel.remove(id);
+        byEfficiency.remove(id);
+    }
+
+    SortedIndex<?> get(VehicleOrder order) {
+        switch (order) {
+            case MAX_SPEED: return bySpeed;
+            case MODEL: return byModel;
+            case FUEL_EFFICIENCY: return byEfficiency;
+            default: throw new IllegalArgumentException("Unknown order " + order);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package fleet;
+
+import events.FleetEventType;
+import events.FleetEvents;
+import exceptions.InvalidOperationException;
+import interfaces.OperationStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Feeds instrument readings (odometer, fuel gauge, load weight) into a fleet. Readings are
+// appended to a TelemetryLog as they arrive; applyLatest() then sets each vehicle that reported
+// since the last call to its most recent reading through FleetManager.applyTelemetry.
+//
+// Readings are absolute values, so applying them twice is harmless: after a restart every
+// vehicle in the log counts as reported and the next applyLatest() brings the fleet back
+// to the last known readings.
+public final class TelemetryIngest implements Closeable {
+
+    private final FleetManager fleet;
+    private final TelemetryLog log;
+    // Vehicles with readings not yet applied, in order of arrival
+    private final Set<String> pending = new LinkedHashSet<>();
+
+    private TelemetryIngest(FleetManager fleet, TelemetryLog log) {
+        this.fleet = fleet;
+        this.log = log;
+        pending.addAll(log.getVehicleIds());
+    }
+
+    public static TelemetryIngest open(FleetManager fleet, Path directory) throws IOException {
+        return new TelemetryIngest(fleet, TelemetryLog.open(directory));
+    }
+
+    public TelemetryLog getLog() {
+        return log;
+    }
+
+    // Use NaN for a value the vehicle did not report
+    public synchronized long record(String vehicleId, long timeMillis, double odometerKm, double fuelLitres, double loadKg)
+            throws IOException {
+        long seq = log.append(vehicleId, timeMillis, odometerKm, fuelLitres, loadKg);
+        pending.add(vehicleId);
+        return seq;
+    }
+
+    // Appends every reading in a replay file of "timeMillis,vehicleId,odometerKm,fuelLitres,loadKg"
+    // lines, where an empty value means not reported. Bad lines are reported and skipped.
+    // Returns the number of readings appended.
+    public synchronized long replay(Path file) throws IOException {
+        long before = log.size();
+        IOException[] failed = new IOException[1];
+        new MappedCsvReader().read(file, new MappedCsvReader.FieldHandler() {
+            @Override
+            public void onLine(FieldReader fields, long lineNo) throws Exception {
+                if (failed[0] != null) return;
+                if (fields.fieldCount() < 2) throw new IllegalArgumentException("Expected time and vehicle ID");
+                double time = fields.parseDouble(0, Double.NaN);
+                if (Double.isNaN(time)) throw new IllegalArgumentException("Bad time: " + fields.text(0));
+                try {
+                    record(fields.text(1).trim(), (long) time, fields.parseDouble(2, Double.NaN),
+                            fields.parseDouble(3, Double.NaN), fields.parseDouble(4, Double.NaN));
+                } catch (IOException e) {
+                    failed[0] = e;
+                }
+            }
+
+            @Override
+            public void onError(long lineNo, Exception e) {
+                System.err.println("Error parsing line " + lineNo + ": " + e.getMessage());
+            }
+        });
+        if (failed[0] != null) throw failed[0];
+        return log.size() - before;
+    }
+
+    // Applies the latest reading of every vehicle that reported since the last call. Readings for
+    // vehicles not in the fleet, or that do not fit the vehicle, are reported as failures.
+    public synchronized BulkResult applyLatest() {
+        long start = System.nanoTime();
+        Map<String, OperationStatus> failures = new LinkedHashMap<>();
+        int matched = 0, changed = 0;
+        double total = 0;
+        FleetEvents.beginBatch();
+        try {
+            for (String id : pending) {
+                TelemetryReading r = log.latest(id);
+                matched++;
+                OperationStatus status;
+                double before = Double.NaN;
+                try {
+                    vehicles.Vehicle v = fleet.findById(id);
+                    if (v != null) before = v.getCurrentMileage();
+                    status = fleet.applyTelemetry(id, r.getOdometerKm(), r.getFuelLitres(), r.getLoadKg());
+                    if (status == OperationStatus.OK && v != null) {
+                        changed++;
+                        total += v.getCurrentMileage() - before;
+                    }
+                } catch (InvalidOperationException e) {
+                    status = OperationStatus.NOT_SUPPORTED;
+                }
+                if (status != OperationStatus.OK) failures.put(id, status);
+            }
+            pending.clear();
+        } finally {
+            FleetEvents.endBatch();
+        }
+        if (changed > 0) FleetEvents.sink().onBatch(FleetEventType.MOVED, changed, total);
+        return new BulkResult(FleetEventType.MOVED, matched, changed, total, failures, System.nanoTime() - start);
+    }
+
+    // Forces the log to disk
+    public synchronized void flush() {
+        log.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        log.close();
+    }
+}
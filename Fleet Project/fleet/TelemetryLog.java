@@ -0,0 +1,259 @@
+package fleet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Append-only log of telemetry readings in memory-mapped segment files, with an in-memory
+// index of where each vehicle's readings are.
+//
+// The index keeps the sequence numbers of each vehicle's last INDEXED readings and of the one
+// with the newest timestamp, so it stays bounded however long a vehicle reports; readings()
+// finds anything older by scanning the log up to the oldest indexed one.
+//
+// Records are a fixed 64 bytes, so reading n sits at a computed offset in segment
+// n / recordsPerSegment. A record becomes visible only when its marker, written last, is set,
+// and opening a directory again maps the existing segments and rebuilds the index up to the
+// first record without a marker; anything after a crash in mid-append is dropped. A marked
+// record with an impossible ID length is corruption, not a torn append, and fails the open.
+//
+// Record layout (big endian):
+//   int marker, byte idLength, 27 bytes UTF-8 vehicle id, long timeMillis,
+//   double odometerKm, double fuelLitres, double loadKg
+public final class TelemetryLog implements Closeable {
+
+    static final int RECORD = 64;
+    static final int MAX_ID_BYTES = 27;
+    static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+    // Readings per vehicle kept in the index; a power of two
+    static final int INDEXED = 256;
+
+    private static final int MARKER = 0x544C4D31; // "TLM1"
+    private static final int ID = 5, TIME = 32, ODOMETER = 40, FUEL = 48, LOAD = 56;
+    private static final String PREFIX = "telemetry-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Vehicle id -> sequence numbers of its recent readings, in order, and of its newest one
+    private final Map<String, Offsets> index = new LinkedHashMap<>();
+    private long size;
+    // First segment with appends not yet forced to disk
+    private int dirtyFrom;
+    private boolean closed;
+
+    // Reading i of the vehicle sits at seq[i % seq.length] once the array has reached INDEXED
+    private static final class Offsets {
+        long[] seq = new long[4];
+        long count;
+        long newest = -1;
+        long newestTime;
+
+        void add(long s, long timeMillis) {
+            if (count == seq.length && count < INDEXED) seq = Arrays.copyOf(seq, (int) count * 2);
+            seq[(int) (count++ % seq.length)] = s;
+            // Ties go to the later append
+            if (newest < 0 || timeMillis >= newestTime) {
+                newest = s;
+                newestTime = timeMillis;
+            }
+        }
+
+        int indexed() {
+            return (int) Math.min(count, seq.length);
+        }
+
+        // The i-th oldest indexed reading
+        long indexedSeq(int i) {
+            return seq[(int) ((count - indexed() + i) % seq.length)];
+        }
+    }
+
+    private TelemetryLog(Path dir, int segmentRecords) {
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+    }
+
+    public static TelemetryLog open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    // Existing segments keep the size they were created with
+    public static TelemetryLog open(Path dir, int segmentRecords) throws IOException {
+        if (segmentRecords <= 0 || (long) segmentRecords * RECORD > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment must hold 1 to " + Integer.MAX_VALUE / RECORD + " records");
+        }
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                found.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), p);
+            }
+        }
+        if (!found.isEmpty()) segmentRecords = (int) (Files.size(found.firstEntry().getValue()) / RECORD);
+        TelemetryLog log = new TelemetryLog(dir, segmentRecords);
+        for (Map.Entry<Long, Path> e : found.entrySet()) {
+            long expected = log.segments.size();
+            if (e.getKey() != expected) throw new IOException("Telemetry segment " + expected + " is missing in " + dir);
+            log.segments.add(map(e.getValue(), segmentRecords));
+        }
+        log.recover();
+        return log;
+    }
+
+    private static MappedByteBuffer map(Path path, int records) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A mapping stays valid after its channel is closed
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD);
+        }
+    }
+
+    // Finds the end of the log and indexes every reading before it
+    private void recover() throws IOException {
+        byte[] id = new byte[MAX_ID_BYTES];
+        long n = 0;
+        scan:
+        for (MappedByteBuffer seg : segments) {
+            for (int at = 0; at < segmentRecords * RECORD; at += RECORD) {
+                if (seg.getInt(at) != MARKER) break scan;
+                String vehicleId = readId(seg, at, id);
+                if (vehicleId == null) {
+                    throw new IOException("Telemetry record " + n + " in " + dir + " is corrupt (ID length " + seg.get(at + 4) + ")");
+                }
+                index(vehicleId, n++, seg.getLong(at + TIME));
+            }
+        }
+        size = n;
+        dirtyFrom = segments.size();
+    }
+
+    public synchronized long append(String vehicleId, long timeMillis, double odometerKm, double fuelLitres, double loadKg)
+            throws IOException {
+        if (closed) throw new IOException("Telemetry log is closed");
+        byte[] id = vehicleId.getBytes(StandardCharsets.UTF_8);
+        if (id.length == 0 || id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Vehicle ID must be 1 to " + MAX_ID_BYTES + " bytes: " + vehicleId);
+        }
+        long seq = size;
+        int segment = (int) (seq / segmentRecords);
+        if (segment == segments.size()) {
+            segments.add(map(dir.resolve(String.format("%s%08d%s", PREFIX, segment, SUFFIX)), segmentRecords));
+        }
+        MappedByteBuffer seg = segments.get(segment);
+        int at = (int) (seq % segmentRecords) * RECORD;
+        seg.put(at + 4, (byte) id.length);
+        seg.put(at + ID, id);
+        seg.putLong(at + TIME, timeMillis);
+        seg.putDouble(at + ODOMETER, odometerKm);
+        seg.putDouble(at + FUEL, fuelLitres);
+        seg.putDouble(at + LOAD, loadKg);
+        seg.putInt(at, MARKER);
+        index(vehicleId, seq, timeMillis);
+        size = seq + 1;
+        dirtyFrom = Math.min(dirtyFrom, segment);
+        return seq;
+    }
+
+    private void index(String vehicleId, long seq, long timeMillis) {
+        Offsets o = index.get(vehicleId);
+        if (o == null) index.put(vehicleId, o = new Offsets());
+        o.add(seq, timeMillis);
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    // Vehicles with readings, in order of their first one
+    public synchronized Set<String> getVehicleIds() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(index.keySet()));
+    }
+
+    public synchronized TelemetryReading get(long seq) {
+        if (seq < 0 || seq >= size) throw new IndexOutOfBoundsException("No telemetry record " + seq);
+        return read(seq, new byte[MAX_ID_BYTES]);
+    }
+
+    // Every record below size was checked by recover() or written by append()
+    private TelemetryReading read(long seq, byte[] id) {
+        MappedByteBuffer seg = segments.get((int) (seq / segmentRecords));
+        int at = (int) (seq % segmentRecords) * RECORD;
+        return new TelemetryReading(seq, readId(seg, at, id), seg.getLong(at + TIME),
+                seg.getDouble(at + ODOMETER), seg.getDouble(at + FUEL), seg.getDouble(at + LOAD));
+    }
+
+    // The vehicle's reading with the newest timestamp (the last appended of equal ones), or null
+    // if it has none. Readings that arrive late do not replace a newer one.
+    public synchronized TelemetryReading latest(String vehicleId) {
+        Offsets o = index.get(vehicleId);
+        return o == null ? null : get(o.newest);
+    }
+
+    public synchronized List<TelemetryReading> readings(String vehicleId) {
+        return readings(vehicleId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // The vehicle's readings timed in [fromMillis, toMillis), in log order
+    public synchronized List<TelemetryReading> readings(String vehicleId, long fromMillis, long toMillis) {
+        List<TelemetryReading> out = new ArrayList<>();
+        Offsets o = index.get(vehicleId);
+        if (o == null) return out;
+        byte[] id = new byte[MAX_ID_BYTES];
+        int indexed = o.indexed();
+        if (o.count > indexed) {
+            // Older than the index holds: scan for them
+            long end = o.indexedSeq(0);
+            for (long seq = 0; seq < end; seq++) {
+                TelemetryReading r = read(seq, id);
+                if (r.getVehicleId().equals(vehicleId) && inRange(r, fromMillis, toMillis)) out.add(r);
+            }
+        }
+        for (int i = 0; i < indexed; i++) {
+            TelemetryReading r = read(o.indexedSeq(i), id);
+            if (inRange(r, fromMillis, toMillis)) out.add(r);
+        }
+        return out;
+    }
+
+    private static boolean inRange(TelemetryReading r, long fromMillis, long toMillis) {
+        return r.getTimeMillis() >= fromMillis && r.getTimeMillis() < toMillis;
+    }
+
+    // Forces appended records to disk
+    public synchronized void flush() {
+        for (int s = dirtyFrom; s < segments.size(); s++) segments.get(s).force();
+        dirtyFrom = segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        flush();
+        closed = true;
+    }
+
+    // The record's vehicle id, or null if its length byte is out of range
+    private static String readId(MappedByteBuffer seg, int at, byte[] id) {
+        int len = seg.get(at + 4);
+        if (len <= 0 || len > MAX_ID_BYTES) return null;
+        seg.get(at + ID, id, 0, len);
+        return new String(id, 0, len, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package fleet;
+
+// One reading from a vehicle's instruments, as stored in the TelemetryLog.
+// A value the vehicle did not report is NaN.
+public final class TelemetryReading {
+    private final long sequence;
+    private final String vehicleId;
+    private final long timeMillis;
+    private final double odometerKm;
+    private final double fuelLitres;
+    private final double loadKg;
+
+    TelemetryReading(long sequence, String vehicleId, long timeMillis, double odometerKm, double fuelLitres, double loadKg) {
+        this.sequence = sequence;
+        this.vehicleId = vehicleId;
+        this.timeMillis = timeMillis;
+        this.odometerKm = odometerKm;
+        this.fuelLitres = fuelLitres;
+        this.loadKg = loadKg;
+    }
+
+    // Position in the log, counting from 0
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public double getOdometerKm() {
+        return odometerKm;
+    }
+
+    public double getFuelLitres() {
+        return fuelLitres;
+    }
+
+    public double getLoadKg() {
+        return loadKg;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s at %d: odometer %.2f km, fuel %.2f l, load %.2f kg",
+                sequence, vehicleId, timeMillis, odometerKm, fuelLitres, loadKg);
+    }
+}
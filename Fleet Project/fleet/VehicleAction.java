@@ -0,0 +1,9 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+// Work done on one vehicle while FleetManager holds that vehicle's lock
+@FunctionalInterface
+public interface VehicleAction<R, E extends Exception> {
+    R apply(Vehicle v) throws E;
+}
@@ -0,0 +1,33 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+import java.nio.ByteBuffer;
+
+// Reads and writes one concrete vehicle type, both in the saveToFile CSV format
+// and in the binary snapshot format (see FleetSnapshot).
+// The first CSV field of every line is typeName(); implementations handle the rest.
+public interface VehicleCodec<T extends Vehicle> {
+    String typeName();
+
+    Class<T> type();
+
+    T read(FieldReader fields) throws Exception;
+
+    // Appends the full line, including the type name but without the line separator
+    void write(T v, StringBuilder out);
+
+    // Binary record body after the common id/model/speed/mileage header; doubles are stored raw
+    void writeBinary(T v, ByteBuffer out);
+
+    T readBinary(String id, String model, double maxSpeed, double currentMileage, ByteBuffer in) throws Exception;
+
+    // Body for fixed-point snapshots, with fuel and cargo as varints of whole units; defaults to the raw body
+    default void writeFixed(T v, ByteBuffer out) {
+        writeBinary(v, out);
+    }
+
+    default T readFixed(String id, String model, double maxSpeed, double currentMileage, ByteBuffer in) throws Exception {
+        return readBinary(id, model, maxSpeed, currentMileage, in);
+    }
+}
@@ -0,0 +1,469 @@
+package fleet;
+
+import vehicles.*;
+import interfaces.Maintainable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registry of per-type codecs used by saveToFile and VehicleFactory.
+// Codecs call the getters directly, so saving never goes through reflection.
+public final class VehicleCodecs {
+    private VehicleCodecs() {}
+
+    private static final Map<String, VehicleCodec<?>> byName = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, VehicleCodec<?>> byClass = new ConcurrentHashMap<>();
+
+    static {
+        register(new CarCodec());
+        register(new TruckCodec());
+        register(new BusCodec());
+        register(new AirplaneCodec());
+        register(new CargoShipCodec());
+    }
+
+    public static void register(VehicleCodec<?> codec) {
+        byName.put(codec.typeName(), codec);
+        byClass.put(codec.type(), codec);
+    }
+
+    public static VehicleCodec<?> forName(String typeName) {
+        return byName.get(typeName);
+    }
+
+    public static Collection<VehicleCodec<?>> all() {
+        return byName.values();
+    }
+
+    // Subclasses without their own codec are saved as their nearest registered ancestor
+    public static VehicleCodec<?> forClass(Class<?> cls) {
+        VehicleCodec<?> codec = byClass.get(cls);
+        if (codec != null) return codec;
+        for (Class<?> c = cls.getSuperclass(); c != null; c = c.getSuperclass()) {
+            codec = byClass.get(c);
+            if (codec != null) {
+                byClass.put(cls, codec);
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    public static Vehicle read(FieldReader fields) throws Exception {
+        String type = fields.text(0).trim();
+        VehicleCodec<?> codec = byName.get(type);
+        if (codec == null) throw new IllegalArgumentException("Unknown vehicle type: " + type);
+        return codec.read(fields);
+    }
+
+    public static void write(Vehicle v, StringBuilder out) {
+        VehicleCodec<?> codec = forClass(v.getClass());
+        if (codec == null) {
+            out.append(v.getClass().getSimpleName()).append(',').append(v.getId()).append(',').append(v.getModel()).append(',');
+            appendFixed2(out, v.getMaxSpeed());
+            out.append(',');
+            appendQuantity(out, v.getCurrentMileage(), FixedPoint.MILEAGE);
+            return;
+        }
+        writeWith(codec, v, out);
+    }
+
+    private static <T extends Vehicle> void writeWith(VehicleCodec<T> codec, Vehicle v, StringBuilder out) {
+        codec.write(codec.type().cast(v), out);
+    }
+
+    static <T extends Vehicle> void writeBinaryWith(VehicleCodec<T> codec, Vehicle v, ByteBuffer out) {
+        codec.writeBinary(codec.type().cast(v), out);
+    }
+
+    static <T extends Vehicle> void writeFixedWith(VehicleCodec<T> codec, Vehicle v, ByteBuffer out) {
+        codec.writeFixed(codec.type().cast(v), out);
+    }
+
+    // Same text as String.format("%.2f", value), minus the Formatter overhead and locale lookups
+    public static void appendFixed2(StringBuilder out, double value) {
+        appendFixed(out, value, 2);
+    }
+
+    // Same text as String.format("%." + decimals + "f", value) for 0 < decimals < 10
+    public static void appendFixed(StringBuilder out, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        if (value == 0) {
+            out.append(Double.doubleToRawLongBits(value) < 0 ? "-0." : "0.");
+            for (int i = 0; i < decimals; i++) out.append('0');
+            return;
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = value * scale;
+        if (scaled == Math.rint(scaled) && Math.abs(scaled) < 1L << 53) {
+            long units = (long) scaled;
+            if (units < 0) {
+                out.append('-');
+                units = -units;
+            }
+            out.append(units / scale).append('.');
+            long frac = units % scale;
+            for (long p = scale / 10; p > 1 && frac < p; p /= 10) out.append('0');
+            out.append(frac);
+            return;
+        }
+        BigDecimal rounded = BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP);
+        if (rounded.signum() == 0 && value < 0) out.append('-');
+        out.append(rounded.toPlainString());
+    }
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10_000, 100_000, 1_000_000,
+            10_000_000, 100_000_000, 1_000_000_000};
+
+    // Fuel, cargo or mileage: to the unit in fixed-point mode (see FixedPoint), else to 2 decimals
+    static void appendQuantity(StringBuilder out, double value, long scale) {
+        appendFixed(out, value, FixedPoint.ENABLED ? FixedPoint.decimals(scale) : 2);
+    }
+
+    // Zig-zag varint of a quantity's whole units, for fixed-point snapshots
+    static void putUnits(ByteBuffer out, double value, long scale) {
+        putVarLong(out, FixedPoint.toUnits(value, scale));
+    }
+
+    static double getUnits(ByteBuffer in, long scale) {
+        return FixedPoint.fromUnits(getVarLong(in), scale);
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) break;
+            if (shift >= 63) throw new IllegalArgumentException("Malformed varint");
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void appendCommon(Vehicle v, String type, StringBuilder out) {
+        out.append(type).append(',').append(v.getId()).append(',').append(v.getModel()).append(',');
+        appendFixed2(out, v.getMaxSpeed());
+        out.append(',');
+        appendQuantity(out, v.getCurrentMileage(), FixedPoint.MILEAGE);
+    }
+
+    private static byte flag(boolean b) {
+        return b ? (byte) 1 : (byte) 0;
+    }
+
+    private static void appendMaintenance(Maintainable m, StringBuilder out) {
+        out.append(',').append(m.needsMaintenance());
+    }
+
+    // Trailing column after the maintenance flag: mileage at the last service
+    private static void appendService(Vehicle v, StringBuilder out) {
+        out.append(',');
+        appendQuantity(out, v.getLastServiceMileage(), FixedPoint.MILEAGE);
+    }
+
+    // Files written before the service column existed start the interval at the current mileage
+    private static void readService(FieldReader f, int field, Vehicle v) throws Exception {
+        if (f.fieldCount() > field) v.restoreServiceMileage(f.parseDouble(field, v.getCurrentMileage()));
+    }
+
+    private static final class CarCodec implements VehicleCodec<Car> {
+        public String typeName() { return "Car"; }
+        public Class<Car> type() { return Car.class; }
+
+        public Car read(FieldReader f) throws Exception {
+            Car c = new Car(f.text(1), f.text(2), f.parseDouble(3, 100.0), f.parseDouble(4, 0.0), f.parseInt(5, 4));
+            if (f.fieldCount() > 6) {
+                double fuel = f.parseDouble(6, 0.0);
+                if (fuel > 0) c.refuel(fuel);
+            }
+            if (f.fieldCount() > 8) {
+                int currP = f.parseInt(8, 0);
+                if (currP > 0) c.boardPassengers(currP);
+            }
+            readService(f, 10, c);
+            return c;
+        }
+
+        public void write(Car c, StringBuilder out) {
+            appendCommon(c, "Car", out);
+            out.append(',').append(c.getNumWheels()).append(',');
+            appendQuantity(out, c.getFuelLevel(), FixedPoint.FUEL);
+            out.append(',').append(c.getPassengerCapacity()).append(',').append(c.getCurrentPassengers());
+            appendMaintenance(c, out);
+            appendService(c, out);
+        }
+
+        public void writeBinary(Car c, ByteBuffer out) {
+            out.putInt(c.getNumWheels()).putDouble(c.getFuelLevel()).putInt(c.getCurrentPassengers());
+            out.put(flag(c.needsMaintenance()));
+        }
+
+        public Car readBinary(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Car c = new Car(id, model, maxSpeed, mileage, in.getInt());
+            c.restoreState(mileage, in.getDouble(), in.getInt(), 0, in.get() != 0);
+            return c;
+        }
+
+        public void writeFixed(Car c, ByteBuffer out) {
+            putVarLong(out, c.getNumWheels());
+            putUnits(out, c.getFuelLevel(), FixedPoint.FUEL);
+            putVarLong(out, c.getCurrentPassengers());
+            out.put(flag(c.needsMaintenance()));
+        }
+
+        public Car readFixed(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Car c = new Car(id, model, maxSpeed, mileage, (int) getVarLong(in));
+            c.restoreState(mileage, getUnits(in, FixedPoint.FUEL), (int) getVarLong(in), 0, in.get() != 0);
+            return c;
+        }
+    }
+
+    private static final class TruckCodec implements VehicleCodec<Truck> {
+        public String typeName() { return "Truck"; }
+        public Class<Truck> type() { return Truck.class; }
+
+        public Truck read(FieldReader f) throws Exception {
+            Truck t = new Truck(f.text(1), f.text(2), f.parseDouble(3, 80.0), f.parseDouble(4, 0.0), f.parseInt(5, 6));
+            if (f.fieldCount() > 6) {
+                double fuel = f.parseDouble(6, 0.0);
+                if (fuel > 0) t.refuel(fuel);
+            }
+            if (f.fieldCount() > 8) {
+                double currCargo = f.parseDouble(8, 0.0);
+                if (currCargo > 0) t.loadCargo(currCargo);
+            }
+            readService(f, 10, t);
+            return t;
+        }
+
+        public void write(Truck t, StringBuilder out) {
+            appendCommon(t, "Truck", out);
+            out.append(',').append(t.getNumWheels()).append(',');
+            appendQuantity(out, t.getFuelLevel(), FixedPoint.FUEL);
+            out.append(',');
+            appendFixed2(out, t.getCargoCapacity());
+            out.append(',');
+            appendQuantity(out, t.getCurrentCargo(), FixedPoint.CARGO);
+            appendMaintenance(t, out);
+            appendService(t, out);
+        }
+
+        public void writeBinary(Truck t, ByteBuffer out) {
+            out.putInt(t.getNumWheels()).putDouble(t.getFuelLevel()).putDouble(t.getCurrentCargo());
+            out.put(flag(t.needsMaintenance()));
+        }
+
+        public Truck readBinary(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Truck t = new Truck(id, model, maxSpeed, mileage, in.getInt());
+            t.restoreState(mileage, in.getDouble(), 0, in.getDouble(), in.get() != 0);
+            return t;
+        }
+
+        public void writeFixed(Truck t, ByteBuffer out) {
+            putVarLong(out, t.getNumWheels());
+            putUnits(out, t.getFuelLevel(), FixedPoint.FUEL);
+            putUnits(out, t.getCurrentCargo(), FixedPoint.CARGO);
+            out.put(flag(t.needsMaintenance()));
+        }
+
+        public Truck readFixed(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Truck t = new Truck(id, model, maxSpeed, mileage, (int) getVarLong(in));
+            t.restoreState(mileage, getUnits(in, FixedPoint.FUEL), 0, getUnits(in, FixedPoint.CARGO), in.get() != 0);
+            return t;
+        }
+    }
+
+    private static final class BusCodec implements VehicleCodec<Bus> {
+        public String typeName() { return "Bus"; }
+        public Class<Bus> type() { return Bus.class; }
+
+        public Bus read(FieldReader f) throws Exception {
+            Bus b = new Bus(f.text(1), f.text(2), f.parseDouble(3, 100.0), f.parseDouble(4, 0.0), f.parseInt(5, 6));
+            if (f.fieldCount() > 6) {
+                double fuel = f.parseDouble(6, 0.0);
+                if (fuel > 0) b.refuel(fuel);
+            }
+            if (f.fieldCount() > 8) {
+                int currP = f.parseInt(8, 0);
+                if (currP > 0) b.boardPassengers(currP);
+            }
+            if (f.fieldCount() > 10) {
+                double currCargo = f.parseDouble(10, 0.0);
+                if (currCargo > 0) b.loadCargo(currCargo);
+            }
+            readService(f, 12, b);
+            return b;
+        }
+
+        public void write(Bus b, StringBuilder out) {
+            appendCommon(b, "Bus", out);
+            out.append(',').append(b.getNumWheels()).append(',');
+            appendQuantity(out, b.getFuelLevel(), FixedPoint.FUEL);
+            out.append(',').append(b.getPassengerCapacity()).append(',').append(b.getCurrentPassengers()).append(',');
+            appendFixed2(out, b.getCargoCapacity());
+            out.append(',');
+            appendQuantity(out, b.getCurrentCargo(), FixedPoint.CARGO);
+            appendMaintenance(b, out);
+            appendService(b, out);
+        }
+
+        public void writeBinary(Bus b, ByteBuffer out) {
+            out.putInt(b.getNumWheels()).putDouble(b.getFuelLevel()).putInt(b.getCurrentPassengers()).putDouble(b.getCurrentCargo());
+            out.put(flag(b.needsMaintenance()));
+        }
+
+        public Bus readBinary(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Bus b = new Bus(id, model, maxSpeed, mileage, in.getInt());
+            b.restoreState(mileage, in.getDouble(), in.getInt(), in.getDouble(), in.get() != 0);
+            return b;
+        }
+
+        public void writeFixed(Bus b, ByteBuffer out) {
+            putVarLong(out, b.getNumWheels());
+            putUnits(out, b.getFuelLevel(), FixedPoint.FUEL);
+            putVarLong(out, b.getCurrentPassengers());
+            putUnits(out, b.getCurrentCargo(), FixedPoint.CARGO);
+            out.put(flag(b.needsMaintenance()));
+        }
+
+        public Bus readFixed(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Bus b = new Bus(id, model, maxSpeed, mileage, (int) getVarLong(in));
+            b.restoreState(mileage, getUnits(in, FixedPoint.FUEL), (int) getVarLong(in), getUnits(in, FixedPoint.CARGO), in.get() != 0);
+            return b;
+        }
+    }
+
+    private static final class AirplaneCodec implements VehicleCodec<Airplane> {
+        public String typeName() { return "Airplane"; }
+        public Class<Airplane> type() { return Airplane.class; }
+
+        public Airplane read(FieldReader f) throws Exception {
+            Airplane a = new Airplane(f.text(1), f.text(2), f.parseDouble(3, 700.0), f.parseDouble(4, 0.0), f.parseDouble(5, 10000.0));
+            if (f.fieldCount() > 6) {
+                double fuel = f.parseDouble(6, 0.0);
+                if (fuel > 0) a.refuel(fuel);
+            }
+            if (f.fieldCount() > 8) {
+                int currP = f.parseInt(8, 0);
+                if (currP > 0) a.boardPassengers(currP);
+            }
+            if (f.fieldCount() > 10) {
+                double currCargo = f.parseDouble(10, 0.0);
+                if (currCargo > 0) a.loadCargo(currCargo);
+            }
+            readService(f, 12, a);
+            return a;
+        }
+
+        public void write(Airplane a, StringBuilder out) {
+            appendCommon(a, "Airplane", out);
+            out.append(',');
+            appendFixed2(out, a.getMaxAltitude());
+            out.append(',');
+            appendQuantity(out, a.getFuelLevel(), FixedPoint.FUEL);
+            out.append(',').append(a.getPassengerCapacity()).append(',').append(a.getCurrentPassengers()).append(',');
+            appendFixed2(out, a.getCargoCapacity());
+            out.append(',');
+            appendQuantity(out, a.getCurrentCargo(), FixedPoint.CARGO);
+            appendMaintenance(a, out);
+            appendService(a, out);
+        }
+
+        public void writeBinary(Airplane a, ByteBuffer out) {
+            out.putDouble(a.getMaxAltitude()).putDouble(a.getFuelLevel()).putInt(a.getCurrentPassengers()).putDouble(a.getCurrentCargo());
+            out.put(flag(a.needsMaintenance()));
+        }
+
+        public Airplane readBinary(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Airplane a = new Airplane(id, model, maxSpeed, mileage, in.getDouble());
+            a.restoreState(mileage, in.getDouble(), in.getInt(), in.getDouble(), in.get() != 0);
+            return a;
+        }
+
+        public void writeFixed(Airplane a, ByteBuffer out) {
+            out.putDouble(a.getMaxAltitude());
+            putUnits(out, a.getFuelLevel(), FixedPoint.FUEL);
+            putVarLong(out, a.getCurrentPassengers());
+            putUnits(out, a.getCurrentCargo(), FixedPoint.CARGO);
+            out.put(flag(a.needsMaintenance()));
+        }
+
+        public Airplane readFixed(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            Airplane a = new Airplane(id, model, maxSpeed, mileage, in.getDouble());
+            a.restoreState(mileage, getUnits(in, FixedPoint.FUEL), (int) getVarLong(in), getUnits(in, FixedPoint.CARGO), in.get() != 0);
+            return a;
+        }
+    }
+
+    private static final class CargoShipCodec implements VehicleCodec<CargoShip> {
+        public String typeName() { return "CargoShip"; }
+        public Class<CargoShip> type() { return CargoShip.class; }
+
+        public CargoShip read(FieldReader f) throws Exception {
+            boolean hasSail = f.parseBoolean(5, true);
+            CargoShip s = new CargoShip(f.text(1), f.text(2), f.parseDouble(3, 30.0), f.parseDouble(4, 0.0), hasSail);
+            if (!hasSail && f.fieldCount() > 6) {
+                double fuel = f.parseDouble(6, 0.0);
+                if (fuel > 0) s.refuel(fuel);
+            }
+            if (f.fieldCount() > 8) {
+                double currCargo = f.parseDouble(8, 0.0);
+                if (currCargo > 0) s.loadCargo(currCargo);
+            }
+            readService(f, 10, s);
+            return s;
+        }
+
+        public void write(CargoShip s, StringBuilder out) {
+            appendCommon(s, "CargoShip", out);
+            out.append(',').append(s.getHasSail().booleanValue()).append(',');
+            appendQuantity(out, s.getFuelLevel(), FixedPoint.FUEL);
+            out.append(',');
+            appendFixed2(out, s.getCargoCapacity());
+            out.append(',');
+            appendQuantity(out, s.getCurrentCargo(), FixedPoint.CARGO);
+            appendMaintenance(s, out);
+            appendService(s, out);
+        }
+
+        public void writeBinary(CargoShip s, ByteBuffer out) {
+            out.put(flag(s.getHasSail())).putDouble(s.getFuelLevel()).putDouble(s.getCurrentCargo());
+            out.put(flag(s.needsMaintenance()));
+        }
+
+        public CargoShip readBinary(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            CargoShip s = new CargoShip(id, model, maxSpeed, mileage, in.get() != 0);
+            s.restoreState(mileage, in.getDouble(), 0, in.getDouble(), in.get() != 0);
+            return s;
+        }
+
+        public void writeFixed(CargoShip s, ByteBuffer out) {
+            out.put(flag(s.getHasSail()));
+            putUnits(out, s.getFuelLevel(), FixedPoint.FUEL);
+            putUnits(out, s.getCurrentCargo(), FixedPoint.CARGO);
+            out.put(flag(s.needsMaintenance()));
+        }
+
+        public CargoShip readFixed(String id, String model, double maxSpeed, double mileage, ByteBuffer in) throws Exception {
+            CargoShip s = new CargoShip(id, model, maxSpeed, mileage, in.get() != 0);
+            s.restoreState(mileage, getUnits(in, FixedPoint.FUEL), 0, getUnits(in, FixedPoint.CARGO), in.get() != 0);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package fleet;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Locking used by FleetManager. In concurrent mode a read/write lock guards the fleet
+// indexes and a fixed array of striped locks guards vehicle state, so operations on
+// vehicles in different stripes run in parallel. The default mode hands out no-op locks.
+final class VehicleLocks {
+
+    private static final Lock NONE = new NoOpLock();
+
+    private final Lock read;
+    private final Lock write;
+    private final Lock[] stripes;
+    private final int mask;
+
+    private VehicleLocks(Lock read, Lock write, Lock[] stripes) {
+        this.read = read;
+        this.write = write;
+        this.stripes = stripes;
+        this.mask = stripes.length - 1;
+    }
+
+    static VehicleLocks none() {
+        return new VehicleLocks(NONE, NONE, new Lock[] {NONE});
+    }
+
+    static VehicleLocks striped() {
+        // Several stripes per core keeps the chance of two busy vehicles sharing one low
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 16 - 1) << 1;
+        Lock[] stripes = new Lock[n];
+        for (int i = 0; i < n; i++) stripes[i] = new ReentrantLock();
+        ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+        return new VehicleLocks(rw.readLock(), rw.writeLock(), stripes);
+    }
+
+    boolean isConcurrent() {
+        return read != NONE;
+    }
+
+    // Shared access to the fleet collection and its indexes
+    Lock read() {
+        return read;
+    }
+
+    // Exclusive access to the fleet collection and its indexes
+    Lock write() {
+        return write;
+    }
+
+    Lock forVehicle(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class NoOpLock implements Lock {
+        public void lock() {}
+        public void lockInterruptibly() {}
+        public boolean tryLock() { return true; }
+        public boolean tryLock(long time, TimeUnit unit) { return true; }
+        public void unlock() {}
+        public Condition newCondition() { throw new UnsupportedOperationException(); }
+    }
+}
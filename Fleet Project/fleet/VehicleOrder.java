@@ -0,0 +1,9 @@
+package fleet;
+
+// Orderings FleetManager keeps sorted views for. Ties keep fleet order.
+public enum VehicleOrder {
+    MAX_SPEED,
+    // Case-insensitive
+    MODEL,
+    FUEL_EFFICIENCY
+}
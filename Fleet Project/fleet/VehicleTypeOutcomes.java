@@ -0,0 +1,37 @@
+package fleet;
+
+// Snapshot of how moves and loading went for one vehicle type
+public final class VehicleTypeOutcomes {
+    private final String type;
+    private final long successfulMoves;
+    private final long fuelFailures;
+    private final long overloads;
+
+    VehicleTypeOutcomes(String type, long successfulMoves, long fuelFailures, long overloads) {
+        this.type = type;
+        this.successfulMoves = successfulMoves;
+        this.fuelFailures = fuelFailures;
+        this.overloads = overloads;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getSuccessfulMoves() {
+        return successfulMoves;
+    }
+
+    public long getFuelFailures() {
+        return fuelFailures;
+    }
+
+    public long getOverloads() {
+        return overloads;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + successfulMoves + " moves, " + fuelFailures + " fuel failures, " + overloads + " overloads";
+    }
+}
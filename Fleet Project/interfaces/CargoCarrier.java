@@ -6,6 +6,8 @@ import exceptions.OverloadException;
 public interface CargoCarrier {
     void loadCargo(double weight) throws OverloadException;
     void unloadCargo(double weight) throws InvalidOperationException;
+    OperationStatus tryLoadCargo(double weight);
+    OperationStatus tryUnloadCargo(double weight);
     double getCargoCapacity();
     double getCurrentCargo();
 }
@@ -7,4 +7,11 @@ public interface FuelConsumable {
     void refuel(double amount) throws InvalidOperationException;
     double getFuelLevel();
     double consumeFuel(double distance) throws InsufficientFuelException;
+
+    // Non-throwing variants for hot loops; a failed call changes nothing
+    OperationStatus tryRefuel(double amount);
+    OperationStatus tryConsumeFuel(double distance);
+
+    // Fuel consumeFuel(distance) would burn, without burning it
+    double fuelRequired(double distance);
 }
@@ -4,4 +4,9 @@ public interface Maintainable {
     void scheduleMaintenance();
     boolean needsMaintenance();
     void performMaintenance();
+
+    // Distance after which maintenance is scheduled automatically; infinite means never
+    default double getServiceIntervalKm() {
+        return Double.POSITIVE_INFINITY;
+    }
 }
@@ -0,0 +1,19 @@
+package interfaces;
+
+// Result of the non-throwing try* operations. Anything but OK means nothing was changed.
+public enum OperationStatus {
+    OK,
+    // Negative distance, or a non-positive fuel amount, weight or passenger count
+    INVALID_AMOUNT,
+    INSUFFICIENT_FUEL,
+    // Would exceed cargo or passenger capacity
+    OVERLOAD,
+    // Would unload or disembark more than is on board
+    UNDERFLOW,
+    // The vehicle cannot do this at all, e.g. refuelling a sailing ship
+    NOT_SUPPORTED;
+
+    public boolean isOk() {
+        return this == OK;
+    }
+}
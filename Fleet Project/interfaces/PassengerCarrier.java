@@ -6,6 +6,8 @@ import exceptions.OverloadException;
 public interface PassengerCarrier {
     void boardPassengers(int count) throws OverloadException, InvalidOperationException;
     void disembarkPassengers(int count) throws InvalidOperationException;
+    OperationStatus tryBoardPassengers(int count);
+    OperationStatus tryDisembarkPassengers(int count);
     int getPassengerCapacity();
     int getCurrentPassengers();
 }
@@ -0,0 +1,202 @@
+package fleet;
+
+import events.FleetEvents;
+import events.NoOpEventSink;
+import interfaces.CargoCarrier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import vehicles.Bus;
+import vehicles.CargoShip;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CargoConsolidatorTest {
+
+    @BeforeAll
+    static void quiet() {
+        FleetEvents.setSink(NoOpEventSink.INSTANCE);
+    }
+
+    @Test
+    void wholeShipmentGoesToTheTightestFit() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new Truck("T2", "M", 100, 0, 6));
+        fleet.addVehicle(new Truck("T3", "M", 100, 0, 6));
+        fleet.loadCargo("T1", 1000);
+        fleet.loadCargo("T2", 3000);
+
+        ConsolidationPlan plan = new CargoConsolidator(fleet).plan(List.of(new Shipment("P1", 1500, false)));
+        assertEquals(Map.of("T2", 1500.0), plan.getAssignments("P1"));
+        assertEquals(0, plan.getUnplacedKg());
+    }
+
+    @Test
+    void indivisibleShipmentThatFitsNowhereIsUnplaced() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new Truck("T2", "M", 100, 0, 6));
+
+        ConsolidationPlan plan = new CargoConsolidator(fleet).plan(List.of(new Shipment("P1", 6000, false)));
+        assertEquals(0, plan.getPieceCount());
+        assertEquals(6000, plan.getUnplacedKg());
+    }
+
+    @Test
+    void divisibleShipmentIsSplitButNotOntoBuses() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new Truck("T2", "M", 100, 0, 6));
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+
+        ConsolidationPlan plan = new CargoConsolidator(fleet).plan(List.of(new Shipment("P1", 8000, true)));
+        Map<String, Double> pieces = plan.getAssignments("P1");
+        assertEquals(2, pieces.size());
+        assertEquals(8000, pieces.get("T1") + pieces.get("T2"), 1e-6);
+        assertEquals(1, plan.getSplitShipmentCount());
+    }
+
+    @Test
+    void shipmentJustUnderAVehiclesSpareCapacityIsPlacedWhole() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new Truck("T2", "M", 100, 0, 6));
+        fleet.loadCargo("T2", 2000);
+
+        // P1 takes T1 down to 1000 kg, leaving T2 the only truck that can take P2, in the same
+        // capacity bucket (about 0.08 kg wide here) as P2 itself
+        List<Shipment> shipments = List.of(new Shipment("P1", 4000, false), new Shipment("P2", 2999.99, true));
+        ConsolidationPlan plan = new CargoConsolidator(fleet).plan(shipments);
+        assertEquals(Map.of("T2", 2999.99), plan.getAssignments("P2"));
+        assertEquals(0, plan.getSplitShipmentCount());
+        checkPlan(plan, shipments, freeCapacity(fleet));
+    }
+
+    @Test
+    void splitRemaindersAreNeverBelowTheMinimumPiece() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new CargoShip("S1", "M", 40, 0, false));
+        fleet.loadCargo("T1", 4700);
+        fleet.loadCargo("S1", 49950);
+
+        // Filling the truck would leave 50 kg, too small a piece for either vehicle, so the truck
+        // takes less and the remainder stays a whole truck-sized piece
+        List<Shipment> shipments = List.of(new Shipment("P1", 350, true));
+        ConsolidationPlan plan = new CargoConsolidator(fleet).plan(shipments);
+        checkPlan(plan, shipments, freeCapacity(fleet));
+        assertEquals(Map.of("T1", 250.0), plan.getAssignments("P1"));
+        assertEquals(100, plan.getUnplacedKg(), 1e-6);
+    }
+
+    @Test
+    void planRespectsCapacityAndAccountsForEveryKilogram() throws Exception {
+        FleetManager fleet = randomFleet(new Random(7), 300);
+        List<Shipment> shipments = randomShipments(new Random(11), 2000);
+        Map<String, Double> free = freeCapacity(fleet);
+
+        CargoConsolidator consolidator = new CargoConsolidator(fleet);
+        ConsolidationPlan plan = consolidator.plan(shipments);
+        checkPlan(plan, shipments, free);
+
+        BulkResult applied = plan.apply();
+        assertTrue(applied.getFailures().isEmpty(), applied.getFailures().toString());
+        for (Vehicle v : fleet.listAll()) {
+            if (v instanceof CargoCarrier) {
+                CargoCarrier c = (CargoCarrier) v;
+                assertTrue(c.getCurrentCargo() <= c.getCargoCapacity(), v.getId());
+            }
+        }
+    }
+
+    @Test
+    void parallelPlanIsValidAndDeterministic() throws Exception {
+        FleetManager fleet = randomFleet(new Random(3), 500);
+        List<Shipment> shipments = randomShipments(new Random(5), 3000);
+        Map<String, Double> free = freeCapacity(fleet);
+        CargoConsolidator consolidator = new CargoConsolidator(fleet);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ConsolidationPlan first = consolidator.plan(shipments, pool, 4);
+            ConsolidationPlan second = consolidator.plan(shipments, pool, 4);
+            checkPlan(first, shipments, free);
+            assertEquals(first.getLoads(), second.getLoads());
+            assertEquals(first.getUnplacedKg(), second.getUnplacedKg());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static FleetManager randomFleet(Random r, int n) throws Exception {
+        FleetManager fleet = new FleetManager();
+        for (int i = 0; i < n; i++) {
+            Vehicle v;
+            switch (i % 3) {
+                case 0: v = new Truck("T" + i, "M", 100, 0, 6); break;
+                case 1: v = new Bus("B" + i, "M", 80, 0, 6); break;
+                default: v = new CargoShip("S" + i, "M", 40, 0, i % 2 == 0); break;
+            }
+            fleet.addVehicle(v);
+            CargoCarrier c = (CargoCarrier) v;
+            double load = Math.floor(r.nextDouble() * c.getCargoCapacity());
+            if (load > 0) fleet.loadCargo(v.getId(), load);
+        }
+        return fleet;
+    }
+
+    static List<Shipment> randomShipments(Random r, int n) {
+        List<Shipment> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double kg = r.nextInt(10) == 0 ? 2000 + r.nextInt(20000) : 1 + r.nextInt(800);
+            out.add(new Shipment("P" + i, kg, r.nextBoolean()));
+        }
+        return out;
+    }
+
+    static Map<String, Double> freeCapacity(FleetManager fleet) {
+        Map<String, Double> free = new HashMap<>();
+        for (Vehicle v : fleet.listAll()) {
+            if (v instanceof CargoCarrier) {
+                CargoCarrier c = (CargoCarrier) v;
+                free.put(v.getId(), c.getCargoCapacity() - c.getCurrentCargo());
+            }
+        }
+        return free;
+    }
+
+    // No vehicle over capacity, every shipment fully planned or reported, and pieces of split
+    // shipments only on types that accept them, never below the type's minimum
+    static void checkPlan(ConsolidationPlan plan, List<Shipment> shipments, Map<String, Double> free) {
+        for (Map.Entry<String, Double> e : plan.getLoads().entrySet()) {
+            assertTrue(e.getValue() <= free.get(e.getKey()) + 1e-6, e.getKey() + " overloaded");
+        }
+        double total = 0;
+        for (Shipment s : shipments) {
+            total += s.getWeight();
+            Map<String, Double> pieces = plan.getAssignments(s.getId());
+            double planned = 0;
+            for (double kg : pieces.values()) planned += kg;
+            assertTrue(planned <= s.getWeight() + 1e-6, s + " over-assigned: " + pieces);
+            if (!s.isDivisible()) assertTrue(pieces.size() <= 1, s + " split: " + pieces);
+            if (pieces.size() > 1 || planned < s.getWeight() - 1e-6) {
+                for (Map.Entry<String, Double> p : pieces.entrySet()) {
+                    assertTrue(!p.getKey().startsWith("B"), s + " split onto a bus: " + pieces);
+                    double min = p.getKey().startsWith("T") ? 100 : 1000;
+                    assertTrue(p.getValue() >= min - 1e-6, s + " piece below minimum: " + pieces);
+                }
+            }
+        }
+        assertEquals(total, plan.getPlannedKg() + plan.getUnplacedKg(), 1e-3);
+    }
+}
@@ -0,0 +1,230 @@
+package fleet;
+
+import events.FleetEvents;
+import events.NoOpEventSink;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vehicles.Airplane;
+import vehicles.Bus;
+import vehicles.Car;
+import vehicles.CargoShip;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FleetPersistenceTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void quiet() {
+        FleetEvents.setSink(NoOpEventSink.INSTANCE);
+    }
+
+    // A mixed fleet with fuel, cargo, passengers and maintenance flags set
+    static FleetManager sampleFleet() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "Volvo FH", 120, 1500, 18));
+        fleet.addVehicle(new Bus("B1", "Citaro", 90, 42000.5, 6));
+        fleet.addVehicle(new Car("C1", "Civic", 180, 12.25, 4));
+        fleet.addVehicle(new Airplane("A1", "A320", 840, 250000, 11000));
+        fleet.addVehicle(new CargoShip("S1", "Maersk", 40, 9000, false));
+        fleet.addVehicle(new CargoShip("S2", "Clipper", 25, 300, true));
+        fleet.refuel("T1", 400);
+        fleet.refuel("B1", 150);
+        fleet.refuel("C1", 40);
+        fleet.refuel("A1", 5000);
+        fleet.refuel("S1", 2000);
+        fleet.move("T1", 100);
+        fleet.loadCargo("T1", 3200.5);
+        fleet.loadCargo("S1", 25000);
+        fleet.boardPassengers("B1", 31);
+        fleet.boardPassengers("A1", 150);
+        fleet.loadCargo("A1", 800);
+        fleet.withVehicle("C1", v -> {
+            ((Maintainable) v).scheduleMaintenance();
+            return null;
+        });
+        return fleet;
+    }
+
+    // Every vehicle's type and state with exact values, in fleet order
+    static List<String> state(FleetManager fleet) {
+        List<String> out = new ArrayList<>();
+        for (Vehicle v : fleet.listAll()) {
+            out.add(v.getClass().getSimpleName() + " " + v.getId() + " " + v.getModel() + " " + v.getMaxSpeed()
+                    + " mileage=" + v.getCurrentMileage()
+                    + " serviced=" + v.getLastServiceMileage()
+                    + " fuel=" + (v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : "-")
+                    + " cargo=" + (v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : "-")
+                    + " passengers=" + (v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : "-")
+                    + " maintenance=" + (v instanceof Maintainable && ((Maintainable) v).needsMaintenance()));
+        }
+        return out;
+    }
+
+    static List<String> csv(FleetManager fleet) {
+        List<String> out = new ArrayList<>();
+        for (Vehicle v : fleet.listAll()) {
+            StringBuilder line = new StringBuilder();
+            VehicleCodecs.write(v, line);
+            out.add(line.toString());
+        }
+        return out;
+    }
+
+    @Test
+    void csvRoundTrip() throws Exception {
+        FleetManager fleet = sampleFleet();
+        // The CSV maintenance column is written for reference but never read back
+        fleet.maintainAll();
+        String file = dir.resolve("fleet.csv").toString();
+        fleet.saveToFile(file);
+
+        FleetManager loaded = new FleetManager();
+        loaded.loadFromFile(file);
+        assertEquals(csv(fleet), csv(loaded));
+        assertEquals(fleet.generateReport(), loaded.generateReport());
+
+        FleetManager parallel = new FleetManager();
+        parallel.loadFromFileParallel(file);
+        assertEquals(csv(fleet), csv(parallel));
+    }
+
+    @Test
+    void csvLoadSkipsBadLinesAndDuplicates() throws Exception {
+        Path file = dir.resolve("bad.csv");
+        Files.writeString(file, "Truck,T1,M,100,0,6\nnonsense\nTruck,T1,M,100,0,6\nBus,B1,M,80,0,6\n");
+        FleetManager fleet = new FleetManager();
+        fleet.loadFromFile(file.toString());
+        assertEquals(List.of("T1", "B1"), ids(fleet));
+    }
+
+    @Test
+    void failedLoadKeepsTheFleet() throws Exception {
+        FleetManager fleet = sampleFleet();
+        List<String> before = state(fleet);
+        fleet.loadFromFile(dir.resolve("missing.csv").toString());
+        assertEquals(before, state(fleet));
+
+        Path snapshot = dir.resolve("fleet.snap");
+        sampleFleet().saveSnapshot(snapshot.toString());
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() / 2);
+        }
+        FleetManager other = new FleetManager();
+        other.addVehicle(new Car("X1", "Golf", 190, 0, 4));
+        other.loadSnapshot(snapshot.toString());
+        assertEquals(List.of("X1"), ids(other));
+        // The write lock was released
+        other.addVehicle(new Car("X2", "Golf", 190, 0, 4));
+        assertEquals(2, other.size());
+    }
+
+    @Test
+    void snapshotRoundTrip() throws Exception {
+        FleetManager fleet = sampleFleet();
+        String file = dir.resolve("fleet.snap").toString();
+        fleet.saveSnapshot(file);
+
+        FleetManager loaded = new FleetManager();
+        loaded.loadSnapshot(file);
+        assertEquals(state(fleet), state(loaded));
+        assertEquals(fleet.generateReport(), loaded.generateReport());
+    }
+
+    @Test
+    void serviceIntervalSurvivesARestart() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "Volvo FH", 120, 0, 18));
+        fleet.refuel("T1", 400);
+        fleet.move("T1", 300);
+        fleet.withVehicle("T1", v -> {
+            ((Maintainable) v).scheduleMaintenance();
+            return null;
+        });
+        fleet.maintainAll();
+        String journal = dir.resolve("journal").toString();
+        fleet.enableJournal(journal);
+        fleet.move("T1", 200);
+        fleet.saveSnapshot(dir.resolve("fleet.snap").toString());
+        fleet.saveToFile(dir.resolve("fleet.csv").toString());
+        fleet.closeJournal();
+
+        FleetManager fromSnapshot = new FleetManager();
+        fromSnapshot.loadSnapshot(dir.resolve("fleet.snap").toString());
+        FleetManager fromCsv = new FleetManager();
+        fromCsv.loadFromFile(dir.resolve("fleet.csv").toString());
+        FleetManager fromJournal = new FleetManager();
+        fromJournal.enableJournal(journal);
+        for (FleetManager restarted : List.of(fromSnapshot, fromCsv, fromJournal)) {
+            Vehicle t = restarted.findById("T1");
+            assertEquals(500, t.getCurrentMileage());
+            assertEquals(300, t.getLastServiceMileage());
+            assertEquals(fleet.findById("T1").getServiceOverdueKm(), t.getServiceOverdueKm());
+        }
+        fromJournal.closeJournal();
+    }
+
+    @Test
+    void journalRecoversWithoutClose() throws Exception {
+        String journal = dir.resolve("journal").toString();
+        FleetManager fleet = sampleFleet();
+        fleet.enableJournal(journal);
+        fleet.move("B1", 50);
+        fleet.unloadCargo("T1", 200.5);
+        fleet.disembarkPassengers("A1", 20);
+        fleet.removeVehicle("S2");
+        fleet.addVehicle(new Truck("T2", "Scania", 110, 0, 10));
+        fleet.refuel("T2", 90);
+        fleet.maintainAll();
+
+        // Simulates a crash: the first manager never closes its journal
+        FleetManager recovered = new FleetManager();
+        recovered.enableJournal(journal);
+        assertEquals(state(fleet), state(recovered));
+        recovered.closeJournal();
+        fleet.closeJournal();
+    }
+
+    @Test
+    void journalRecoversAfterCompaction() throws Exception {
+        String journal = dir.resolve("journal").toString();
+        FleetManager fleet = sampleFleet();
+        fleet.enableJournal(journal, FleetJournal.Durability.FORCE);
+        fleet.move("T1", 20);
+        fleet.compactJournal().get();
+        fleet.loadCargo("S1", 1000);
+        fleet.removeVehicle("C1");
+        fleet.closeJournal();
+
+        FleetManager recovered = new FleetManager();
+        recovered.enableJournal(journal);
+        assertEquals(state(fleet), state(recovered));
+        assertNull(recovered.findById("C1"));
+        assertNotNull(recovered.findById("S1"));
+        recovered.closeJournal();
+    }
+
+    private static List<String> ids(FleetManager fleet) {
+        List<String> out = new ArrayList<>();
+        for (Vehicle v : fleet.listAll()) out.add(v.getId());
+        return out;
+    }
+}
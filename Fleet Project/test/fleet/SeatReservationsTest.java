@@ -0,0 +1,192 @@
+package fleet;
+
+import events.FleetEvents;
+import events.NoOpEventSink;
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import interfaces.OperationStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import vehicles.Bus;
+import vehicles.Car;
+import vehicles.Truck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatReservationsTest {
+
+    @BeforeAll
+    static void quiet() {
+        FleetEvents.setSink(NoOpEventSink.INSTANCE);
+    }
+
+    @Test
+    void holdConfirmAndRelease() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        fleet.boardPassengers("B1", 10);
+        SeatReservations seats = new SeatReservations(fleet);
+        assertEquals(40, seats.getAvailableSeats("B1"));
+
+        SeatHold a = seats.hold("B1", 15, 60_000);
+        SeatHold b = seats.hold("B1", 5, 60_000);
+        assertEquals(20, seats.getAvailableSeats("B1"));
+        assertEquals(20, seats.getHeldSeats("B1"));
+
+        assertTrue(seats.confirm(a));
+        assertFalse(seats.confirm(a));
+        assertEquals(15, seats.getConfirmedSeats("B1"));
+        assertEquals(5, seats.getHeldSeats("B1"));
+
+        assertTrue(seats.release(b));
+        assertFalse(seats.release(b));
+        assertTrue(seats.release(a));
+        assertEquals(40, seats.getAvailableSeats("B1"));
+        assertEquals(0, seats.getConfirmedSeats("B1"));
+    }
+
+    @Test
+    void neverSellsPastCapacity() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Car("C1", "M", 180, 0, 4));
+        SeatReservations seats = new SeatReservations(fleet);
+        seats.hold("C1", 4, 60_000);
+        SeatHold rejected = seats.tryHold("C1", 2, 60_000);
+        assertEquals(OperationStatus.OVERLOAD, rejected.getStatus());
+        assertEquals(SeatHold.State.REJECTED, rejected.getState());
+        assertThrows(OverloadException.class, () -> seats.hold("C1", 2, 60_000));
+        assertEquals(1, seats.getAvailableSeats("C1"));
+    }
+
+    @Test
+    void rejectsBadRequestsAndNonPassengerVehicles() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Truck("T1", "M", 100, 0, 6));
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        SeatReservations seats = new SeatReservations(fleet);
+        assertEquals(OperationStatus.NOT_SUPPORTED, seats.tryHold("T1", 1, 1000).getStatus());
+        assertEquals(OperationStatus.INVALID_AMOUNT, seats.tryHold("B1", 0, 1000).getStatus());
+        assertEquals(OperationStatus.INVALID_AMOUNT, seats.tryHold("B1", 1, 0).getStatus());
+        assertEquals(50, seats.getAvailableSeats("B1"));
+    }
+
+    @Test
+    void lapsedHoldsGiveTheirSeatsBack() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        SeatReservations seats = new SeatReservations(fleet);
+        SeatHold hold = seats.hold("B1", 30, 1);
+        Thread.sleep(20);
+        assertFalse(seats.confirm(hold));
+        assertEquals(SeatHold.State.EXPIRED, hold.getState());
+        assertEquals(50, seats.getAvailableSeats("B1"));
+
+        seats.hold("B1", 50, 1);
+        Thread.sleep(20);
+        assertEquals(1, seats.expireHolds());
+        assertEquals(50, seats.getAvailableSeats("B1"));
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        FleetManager fleet = new FleetManager(true);
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        SeatReservations seats = new SeatReservations(fleet);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> buyers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread buyer = new Thread(() -> {
+                try {
+                    go.await();
+                    for (int i = 0; i < 2000; i++) {
+                        SeatHold h = seats.tryHold("B1", 1 + i % 3, 60_000);
+                        if (h.getStatus() != OperationStatus.OK) continue;
+                        // Give some back so seats keep changing hands
+                        if (i % 4 == 0) seats.release(h);
+                        else if (seats.confirm(h)) sold.addAndGet(h.getSeats());
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            buyers.add(buyer);
+            buyer.start();
+        }
+        go.countDown();
+        for (Thread b : buyers) b.join();
+        assertEquals(sold.get(), seats.getConfirmedSeats("B1"));
+        assertTrue(sold.get() <= 50);
+        assertEquals(50 - sold.get(), seats.getAvailableSeats("B1"));
+    }
+
+    @Test
+    void boardingTakesSeatsFromTheLedger() throws Exception {
+        FleetManager fleet = new FleetManager();
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        SeatReservations seats = new SeatReservations(fleet);
+        SeatHold hold = seats.hold("B1", 45, 60_000);
+        assertTrue(seats.confirm(hold));
+
+        fleet.boardPassengers("B1", 5);
+        assertEquals(0, seats.getAvailableSeats("B1"));
+        assertThrows(OverloadException.class, () -> fleet.boardPassengers("B1", 1));
+        assertEquals(5, ((Bus) fleet.findById("B1")).getCurrentPassengers());
+
+        fleet.disembarkPassengers("B1", 2);
+        assertEquals(2, seats.getAvailableSeats("B1"));
+        assertEquals(45, seats.getConfirmedSeats("B1"));
+        fleet.disembarkAll(null);
+        assertEquals(5, seats.getAvailableSeats("B1"));
+    }
+
+    @Test
+    void boardingAndBuyingTogetherNeverOverfill() throws Exception {
+        FleetManager fleet = new FleetManager(true);
+        fleet.addVehicle(new Bus("B1", "M", 80, 0, 6));
+        SeatReservations seats = new SeatReservations(fleet);
+        seats.getAvailableSeats("B1");
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger boarded = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            boolean buyer = t % 2 == 0;
+            Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                    for (int i = 0; i < 2000; i++) {
+                        if (buyer) {
+                            SeatHold h = seats.tryHold("B1", 1 + i % 3, 60_000);
+                            if (h.getStatus() == OperationStatus.OK && seats.confirm(h)) sold.addAndGet(h.getSeats());
+                        } else {
+                            try {
+                                fleet.boardPassengers("B1", 1);
+                                boarded.incrementAndGet();
+                            } catch (OverloadException | InvalidOperationException e) {
+                                // Sold out
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        go.countDown();
+        for (Thread t : threads) t.join();
+        assertEquals(50, sold.get() + boarded.get());
+        assertEquals(boarded.get(), ((Bus) fleet.findById("B1")).getCurrentPassengers());
+        assertEquals(0, seats.getAvailableSeats("B1"));
+    }
+}
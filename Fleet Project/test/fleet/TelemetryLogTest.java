@@ -0,0 +1,75 @@
+package fleet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TelemetryLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void latestIsTheNewestTimestampNotTheLastAppend() throws Exception {
+        try (TelemetryLog log = TelemetryLog.open(dir, 16)) {
+            log.append("T1", 2_000, 120, 50, 0);
+            log.append("T1", 3_000, 130, 49, 0);
+            // Arrives late, after the 3000 ms reading
+            log.append("T1", 1_000, 110, 60, 0);
+            assertEquals(130, log.latest("T1").getOdometerKm());
+        }
+        try (TelemetryLog log = TelemetryLog.open(dir)) {
+            assertEquals(130, log.latest("T1").getOdometerKm());
+        }
+    }
+
+    @Test
+    void readingsOlderThanTheIndexAreStillFound() throws Exception {
+        int n = TelemetryLog.INDEXED * 3 + 5;
+        try (TelemetryLog log = TelemetryLog.open(dir, 100)) {
+            for (int i = 0; i < n; i++) {
+                log.append("T1", i, i, 0, 0);
+                if (i % 7 == 0) log.append("B1", i, i, 0, 0);
+            }
+            checkReadings(log, n);
+        }
+        try (TelemetryLog log = TelemetryLog.open(dir)) {
+            checkReadings(log, n);
+        }
+    }
+
+    private static void checkReadings(TelemetryLog log, int n) {
+        List<Long> times = new ArrayList<>();
+        for (TelemetryReading r : log.readings("T1")) times.add(r.getTimeMillis());
+        List<Long> expected = new ArrayList<>();
+        for (long i = 0; i < n; i++) expected.add(i);
+        assertEquals(expected, times);
+        assertEquals(10, log.readings("T1", 20, 30).size());
+        assertEquals((n + 6) / 7, log.readings("B1").size());
+        assertEquals(n - 1, log.latest("T1").getTimeMillis());
+    }
+
+    @Test
+    void corruptIdLengthFailsTheOpen() throws Exception {
+        try (TelemetryLog log = TelemetryLog.open(dir, 16)) {
+            log.append("T1", 1_000, 10, 0, 0);
+            log.append("T1", 2_000, 20, 0, 0);
+        }
+        for (byte len : new byte[] {0, -3, TelemetryLog.MAX_ID_BYTES + 1}) {
+            try (FileChannel ch = FileChannel.open(dir.resolve("telemetry-00000000.seg"), StandardOpenOption.WRITE)) {
+                ch.write(ByteBuffer.wrap(new byte[] {len}), TelemetryLog.RECORD + 4);
+            }
+            assertThrows(IOException.class, () -> TelemetryLog.open(dir));
+        }
+    }
+}
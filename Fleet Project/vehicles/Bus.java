@@ -1,14 +1,19 @@
 package vehicles;
 
+import events.FleetEventType;
 import exceptions.InvalidOperationException;
 import exceptions.OverloadException;
 import exceptions.InsufficientFuelException;
 import interfaces.CargoCarrier;
 import interfaces.FuelConsumable;
 import interfaces.Maintainable;
+import interfaces.OperationStatus;
 import interfaces.PassengerCarrier;
 
 public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier, CargoCarrier, Maintainable {
+
+    // Kilometres between scheduled services
+    public static final double SERVICE_INTERVAL_KM = 15000;
     
     private double fuelLevel = 0;
     private int passengerCapacity = 50;
@@ -29,19 +34,35 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
 
     @Override
     public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
-        if (distance < 0) throw new InvalidOperationException("Distance cannot be negative.");
-        double fuel_reqired = distance / calculateFuelEfficiency();
-        if (fuel_reqired > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-        fuelLevel -= fuel_reqired;
+        switch (tryMove(distance)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Distance cannot be negative.");
+            case INSUFFICIENT_FUEL: throw new InsufficientFuelException("Not enough fuel.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryMove(double distance) {
+        if (distance < 0) return OperationStatus.INVALID_AMOUNT;
+        double fuel_reqired = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+        if (fuel_reqired > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+        fuelLevel = FixedPoint.subtract(fuelLevel, fuel_reqired, FixedPoint.FUEL);
         updateMileage(distance);
-        System.out.println("Drove on road for "+distance+" km");
+        publish(FleetEventType.MOVED, distance);
+        return OperationStatus.OK;
     }
 
     @Override
     public void refuel(double amount) throws InvalidOperationException {
-        if (amount <= 0) throw new InvalidOperationException("Fuel amount must be positive.");
-        fuelLevel += amount;
-        System.out.println("Refueled " + amount + " liters in the fuel tank.");
+        if (tryRefuel(amount) == OperationStatus.INVALID_AMOUNT) throw new InvalidOperationException("Fuel amount must be positive.");
+    }
+
+    @Override
+    public OperationStatus tryRefuel(double amount) {
+        if (amount <= 0) return OperationStatus.INVALID_AMOUNT;
+        fuelLevel = FixedPoint.add(fuelLevel, amount, FixedPoint.FUEL);
+        publish(FleetEventType.REFUELED, amount);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -49,36 +70,69 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
         return fuelLevel;
     }
 
+    @Override
+    public double fuelRequired(double distance) {
+        return FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
-        double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-        fuelLevel -= fuelNeeded;
-        return fuelNeeded;
+        if (tryConsumeFuel(distance) == OperationStatus.INSUFFICIENT_FUEL) throw new InsufficientFuelException("Not enough fuel.");
+        return fuelRequired(distance);
+    }
+
+    @Override
+    public OperationStatus tryConsumeFuel(double distance) {
+        double fuelNeeded = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+        if (fuelNeeded > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+        fuelLevel = FixedPoint.subtract(fuelLevel, fuelNeeded, FixedPoint.FUEL);
+        publish(FleetEventType.FUEL_CONSUMED, fuelNeeded);
+        return OperationStatus.OK;
     }
 
     @Override
     public void loadCargo(double weight) throws OverloadException {
+        switch (tryLoadCargo(weight)) {
+            case INVALID_AMOUNT: throw new OverloadException("Cargo weight must be positive.");
+            case OVERLOAD: throw new OverloadException("Exceeds cargo capacity! Cannot load " + weight + " kg.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryLoadCargo(double weight) {
         if (weight <= 0) {
-            throw new OverloadException("Cargo weight must be positive.");
+            return OperationStatus.INVALID_AMOUNT;
         }
-        if (currentCargo + weight > cargoCapacity) {
-            throw new OverloadException("Exceeds cargo capacity! Cannot load " + weight + " kg.");
+        double loaded = FixedPoint.add(currentCargo, weight, FixedPoint.CARGO);
+        if (loaded > cargoCapacity) {
+            return OperationStatus.OVERLOAD;
         }
-        currentCargo += weight;
-        System.out.println("Loaded " + weight + " kg. Current cargo: " + currentCargo + " / " + cargoCapacity);
+        currentCargo = loaded;
+        publish(FleetEventType.CARGO_LOADED, weight);
+        return OperationStatus.OK;
     }
 
     @Override
     public void unloadCargo(double weight) throws InvalidOperationException {
+        switch (tryUnloadCargo(weight)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Cargo weight must be positive.");
+            case UNDERFLOW: throw new InvalidOperationException("Cannot unload more cargo than currently loaded.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryUnloadCargo(double weight) {
         if (weight <= 0) {
-            throw new InvalidOperationException("Cargo weight must be positive.");
+            return OperationStatus.INVALID_AMOUNT;
         }
-        if (weight > currentCargo) {
-            throw new InvalidOperationException("Cannot unload more cargo than currently loaded.");
+        if (FixedPoint.round(weight, FixedPoint.CARGO) > currentCargo) {
+            return OperationStatus.UNDERFLOW;
         }
-        currentCargo -= weight;
-        System.out.println("Unloaded " + weight + " kg. Current cargo: " + currentCargo + " / " + cargoCapacity);
+        currentCargo = FixedPoint.subtract(currentCargo, weight, FixedPoint.CARGO);
+        publish(FleetEventType.CARGO_UNLOADED, weight);
+        return OperationStatus.OK;
     }
 
 
@@ -103,19 +157,40 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
 
     @Override
     public void boardPassengers(int n) throws InvalidOperationException {
-        if (n <= 0) throw new InvalidOperationException("Passenger count must be positive.");
+        switch (tryBoardPassengers(n)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Passenger count must be positive.");
+            case OVERLOAD: throw new InvalidOperationException("Exceeds passenger capacity.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryBoardPassengers(int n) {
+        if (n <= 0) return OperationStatus.INVALID_AMOUNT;
         if (currentPassengers + n > passengerCapacity)
-            throw new InvalidOperationException("Exceeds passenger capacity.");
+            return OperationStatus.OVERLOAD;
         currentPassengers += n;
-        System.out.println(n + " passengers boarded. Current passengers: " + currentPassengers);
+        publish(FleetEventType.PASSENGERS_BOARDED, n);
+        return OperationStatus.OK;
     }
 
     @Override
     public void disembarkPassengers(int n) throws InvalidOperationException {
+        switch (tryDisembarkPassengers(n)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Passenger count cannot be negative.");
+            case UNDERFLOW: throw new InvalidOperationException("Cannot have negative passengers.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryDisembarkPassengers(int n) {
+        if (n < 0) return OperationStatus.INVALID_AMOUNT;
         if (currentPassengers - n < 0)
-            throw new InvalidOperationException("Cannot have negative passengers.");
+            return OperationStatus.UNDERFLOW;
         currentPassengers -= n;
-        System.out.println(n + " passengers disembarked. Current passengers: " + currentPassengers);
+        publish(FleetEventType.PASSENGERS_DISEMBARKED, n);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -126,13 +201,28 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
     @Override
     public void scheduleMaintenance() {
         maintenanceNeeded = true;
-        System.out.println("Maintenance scheduled.");
+        publish(FleetEventType.MAINTENANCE_SCHEDULED, 0);
     }
     @Override
     public void performMaintenance() {
         maintenanceNeeded = false; 
-        System.out.println("Maintenance completed. Vehicle is now ready for use.");
+        markServiced();
+        publish(FleetEventType.MAINTENANCE_PERFORMED, 0);
     }
 
-    
+    @Override
+    public double getServiceIntervalKm() {
+        return SERVICE_INTERVAL_KM;
+    }
+
+    @Override
+    protected void restoreOwnState(double fuelLevel, int passengers, double cargo, boolean maintenanceNeeded)
+            throws InvalidOperationException {
+        if (passengers > passengerCapacity) throw new InvalidOperationException("Exceeds passenger capacity.");
+        if (cargo > cargoCapacity) throw new InvalidOperationException("Exceeds cargo capacity.");
+        this.fuelLevel = fuelLevel;
+        this.currentPassengers = passengers;
+        this.currentCargo = cargo;
+        this.maintenanceNeeded = maintenanceNeeded;
+    }
 }
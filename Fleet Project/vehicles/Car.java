@@ -1,12 +1,17 @@
 package vehicles;
 
+import events.FleetEventType;
 import exceptions.InvalidOperationException;
 import exceptions.InsufficientFuelException;
 import interfaces.FuelConsumable;
 import interfaces.Maintainable;
+import interfaces.OperationStatus;
 import interfaces.PassengerCarrier;
 
 public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier, Maintainable {
+
+    // Kilometres between scheduled services
+    public static final double SERVICE_INTERVAL_KM = 10000;
     
     private double fuelLevel = 0;
     private int passengerCapacity = 5;
@@ -25,19 +30,35 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
 
     @Override
     public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
-        if (distance < 0) throw new InvalidOperationException("Distance cannot be negative.");
-        double fuel_reqired = distance / calculateFuelEfficiency();
-        if (fuel_reqired > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-        fuelLevel -= fuel_reqired;
+        switch (tryMove(distance)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Distance cannot be negative.");
+            case INSUFFICIENT_FUEL: throw new InsufficientFuelException("Not enough fuel.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryMove(double distance) {
+        if (distance < 0) return OperationStatus.INVALID_AMOUNT;
+        double fuel_reqired = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+        if (fuel_reqired > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+        fuelLevel = FixedPoint.subtract(fuelLevel, fuel_reqired, FixedPoint.FUEL);
         updateMileage(distance);
-        System.out.println("Drove on road for "+distance+" km");
+        publish(FleetEventType.MOVED, distance);
+        return OperationStatus.OK;
     }
 
     @Override
     public void refuel(double amount) throws InvalidOperationException {
-        if (amount <= 0) throw new InvalidOperationException("Fuel amount must be positive.");
-        fuelLevel += amount;
-        System.out.println("Refueled " + amount + " liters in the fuel tank.");
+        if (tryRefuel(amount) == OperationStatus.INVALID_AMOUNT) throw new InvalidOperationException("Fuel amount must be positive.");
+    }
+
+    @Override
+    public OperationStatus tryRefuel(double amount) {
+        if (amount <= 0) return OperationStatus.INVALID_AMOUNT;
+        fuelLevel = FixedPoint.add(fuelLevel, amount, FixedPoint.FUEL);
+        publish(FleetEventType.REFUELED, amount);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -45,12 +66,24 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
         return fuelLevel;
     }
 
+    @Override
+    public double fuelRequired(double distance) {
+        return FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
-        double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-        fuelLevel -= fuelNeeded;
-        return fuelNeeded;
+        if (tryConsumeFuel(distance) == OperationStatus.INSUFFICIENT_FUEL) throw new InsufficientFuelException("Not enough fuel.");
+        return fuelRequired(distance);
+    }
+
+    @Override
+    public OperationStatus tryConsumeFuel(double distance) {
+        double fuelNeeded = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+        if (fuelNeeded > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+        fuelLevel = FixedPoint.subtract(fuelLevel, fuelNeeded, FixedPoint.FUEL);
+        publish(FleetEventType.FUEL_CONSUMED, fuelNeeded);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -65,19 +98,40 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
 
     @Override
     public void boardPassengers(int n) throws InvalidOperationException {
-        if (n <= 0) throw new InvalidOperationException("Passenger count must be positive.");
+        switch (tryBoardPassengers(n)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Passenger count must be positive.");
+            case OVERLOAD: throw new InvalidOperationException("Exceeds passenger capacity.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryBoardPassengers(int n) {
+        if (n <= 0) return OperationStatus.INVALID_AMOUNT;
         if (currentPassengers + n > passengerCapacity)
-            throw new InvalidOperationException("Exceeds passenger capacity.");
+            return OperationStatus.OVERLOAD;
         currentPassengers += n;
-        System.out.println(n + " passengers boarded. Current passengers: " + currentPassengers);
+        publish(FleetEventType.PASSENGERS_BOARDED, n);
+        return OperationStatus.OK;
     }
 
     @Override
     public void disembarkPassengers(int n) throws InvalidOperationException {
+        switch (tryDisembarkPassengers(n)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Passenger count cannot be negative.");
+            case UNDERFLOW: throw new InvalidOperationException("Cannot have negative passengers.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryDisembarkPassengers(int n) {
+        if (n < 0) return OperationStatus.INVALID_AMOUNT;
         if (currentPassengers - n < 0)
-            throw new InvalidOperationException("Cannot have negative passengers.");
+            return OperationStatus.UNDERFLOW;
         currentPassengers -= n;
-        System.out.println(n + " passengers disembarked. Current passengers: " + currentPassengers);
+        publish(FleetEventType.PASSENGERS_DISEMBARKED, n);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -88,13 +142,26 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     @Override
     public void scheduleMaintenance() {
         maintenanceNeeded = true;
-        System.out.println("Maintenance scheduled.");
+        publish(FleetEventType.MAINTENANCE_SCHEDULED, 0);
     }
     @Override
     public void performMaintenance() {
         maintenanceNeeded = false; 
-        System.out.println("Maintenance completed. Vehicle is now ready for use.");
+        markServiced();
+        publish(FleetEventType.MAINTENANCE_PERFORMED, 0);
     }
 
-    
+    @Override
+    public double getServiceIntervalKm() {
+        return SERVICE_INTERVAL_KM;
+    }
+
+    @Override
+    protected void restoreOwnState(double fuelLevel, int passengers, double cargo, boolean maintenanceNeeded)
+            throws InvalidOperationException {
+        if (passengers > passengerCapacity) throw new InvalidOperationException("Exceeds passenger capacity.");
+        this.fuelLevel = fuelLevel;
+        this.currentPassengers = passengers;
+        this.maintenanceNeeded = maintenanceNeeded;
+    }
 }
@@ -1,13 +1,18 @@
 package vehicles;
 
+import events.FleetEventType;
 import exceptions.InvalidOperationException;
 import exceptions.OverloadException;
 import exceptions.InsufficientFuelException;
 import interfaces.CargoCarrier;
 import interfaces.FuelConsumable;
 import interfaces.Maintainable;
+import interfaces.OperationStatus;
 
 public class CargoShip extends WaterVehicle implements FuelConsumable, CargoCarrier, Maintainable {
+
+    // Kilometres between scheduled services
+    public static final double SERVICE_INTERVAL_KM = 50000;
     
     private double fuelLevel = 0;
     private double cargoCapacity = 50000;
@@ -25,23 +30,43 @@ public class CargoShip extends WaterVehicle implements FuelConsumable, CargoCarr
     }
     @Override
     public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
-        if (distance < 0) throw new InvalidOperationException("Distance cannot be negative.");
+        switch (tryMove(distance)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Distance cannot be negative.");
+            case INSUFFICIENT_FUEL: throw new InsufficientFuelException("Not enough fuel.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryMove(double distance) {
+        if (distance < 0) return OperationStatus.INVALID_AMOUNT;
         if (!getHasSail()) {
-            double fuelRequired = distance / calculateFuelEfficiency();
-            if (fuelRequired > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-            fuelLevel -= fuelRequired;
+            double fuelRequired = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+            if (fuelRequired > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+            fuelLevel = FixedPoint.subtract(fuelLevel, fuelRequired, FixedPoint.FUEL);
         }
 
         updateMileage(distance);
-        System.out.println("Sailing with cargo for " + distance + " km.");
+        publish(FleetEventType.MOVED, distance);
+        return OperationStatus.OK;
     }
 
     @Override
     public void refuel(double amount) throws InvalidOperationException {
-        if (getHasSail()) throw new InvalidOperationException("This ship has a sail and does not use fuel.");
-        if (amount <= 0) throw new InvalidOperationException("Fuel amount must be positive.");
-        fuelLevel += amount;
-        System.out.println("Refueled " + amount + " liters in the fuel tank.");
+        switch (tryRefuel(amount)) {
+            case NOT_SUPPORTED: throw new InvalidOperationException("This ship has a sail and does not use fuel.");
+            case INVALID_AMOUNT: throw new InvalidOperationException("Fuel amount must be positive.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryRefuel(double amount) {
+        if (getHasSail()) return OperationStatus.NOT_SUPPORTED;
+        if (amount <= 0) return OperationStatus.INVALID_AMOUNT;
+        fuelLevel = FixedPoint.add(fuelLevel, amount, FixedPoint.FUEL);
+        publish(FleetEventType.REFUELED, amount);
+        return OperationStatus.OK;
     }
 
     @Override
@@ -49,37 +74,70 @@ public class CargoShip extends WaterVehicle implements FuelConsumable, CargoCarr
         return getHasSail() ? 0.0 : fuelLevel;
     }
 
+    @Override
+    public double fuelRequired(double distance) {
+        return getHasSail() ? 0.0 : FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
-        if (getHasSail()) return 0.0;
-        double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) throw new InsufficientFuelException("Not enough fuel.");
-        fuelLevel -= fuelNeeded;
-        return fuelNeeded;
+        if (tryConsumeFuel(distance) == OperationStatus.INSUFFICIENT_FUEL) throw new InsufficientFuelException("Not enough fuel.");
+        return fuelRequired(distance);
+    }
+
+    @Override
+    public OperationStatus tryConsumeFuel(double distance) {
+        if (getHasSail()) return OperationStatus.OK;
+        double fuelNeeded = FixedPoint.round(distance / calculateFuelEfficiency(), FixedPoint.FUEL);
+        if (fuelNeeded > fuelLevel) return OperationStatus.INSUFFICIENT_FUEL;
+        fuelLevel = FixedPoint.subtract(fuelLevel, fuelNeeded, FixedPoint.FUEL);
+        publish(FleetEventType.FUEL_CONSUMED, fuelNeeded);
+        return OperationStatus.OK;
     }
 
     @Override
     public void loadCargo(double weight) throws OverloadException {
+        switch (tryLoadCargo(weight)) {
+            case INVALID_AMOUNT: throw new OverloadException("Cargo weight must be positive.");
+            case OVERLOAD: throw new OverloadException("Exceeds cargo capacity! Cannot load " + weight + " kg.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryLoadCargo(double weight) {
         if (weight <= 0) {
-            throw new OverloadException("Cargo weight must be positive.");
+            return OperationStatus.INVALID_AMOUNT;
         }
-        if (currentCargo + weight > cargoCapacity) {
-            throw new OverloadException("Exceeds cargo capacity! Cannot load " + weight + " kg.");
+        double loaded = FixedPoint.add(currentCargo, weight, FixedPoint.CARGO);
+        if (loaded > cargoCapacity) {
+            return OperationStatus.OVERLOAD;
         }
-        currentCargo += weight;
-        System.out.println("Loaded " + weight + " kg. Current cargo: " + currentCargo + " / " + cargoCapacity);
+        currentCargo = loaded;
+        publish(FleetEventType.CARGO_LOADED, weight);
+        return OperationStatus.OK;
     }
 
     @Override
     public void unloadCargo(double weight) throws InvalidOperationException {
+        switch (tryUnloadCargo(weight)) {
+            case INVALID_AMOUNT: throw new InvalidOperationException("Cargo weight must be positive.");
+            case UNDERFLOW: throw new InvalidOperationException("Cannot unload more cargo than currently loaded.");
+            default: break;
+        }
+    }
+
+    @Override
+    public OperationStatus tryUnloadCargo(double weight) {
         if (weight <= 0) {
-            throw new InvalidOperationException("Cargo weight must be positive.");
+            return OperationStatus.INVALID_AMOUNT;
         }
-        if (weight > currentCargo) {
-            throw new InvalidOperationException("Cannot unload more cargo than currently loaded.");
+        if (FixedPoint.round(weight, FixedPoint.CARGO) > currentCargo) {
+            return OperationStatus.UNDERFLOW;
         }
-        currentCargo -= weight;
-        System.out.println("Unloaded " + weight + " kg. Current cargo: " + currentCargo + " / " + cargoCapacity);
+        currentCargo = FixedPoint.subtract(currentCargo, weight, FixedPoint.CARGO);
+        publish(FleetEventType.CARGO_UNLOADED, weight);
+        return OperationStatus.OK;
     }
 
 
@@ -101,13 +159,26 @@ public class CargoShip extends WaterVehicle implements FuelConsumable, CargoCarr
     @Override
     public void scheduleMaintenance() {
         maintenanceNeeded = true;
-        System.out.println("Maintenance scheduled.");
+        publish(FleetEventType.MAINTENANCE_SCHEDULED, 0);
     }
     @Override
     public void performMaintenance() {
         maintenanceNeeded = false; 
-        System.out.println("Maintenance completed. Vehicle is now ready for use.");
+        markServiced();
+        publish(FleetEventType.MAINTENANCE_PERFORMED, 0);
     }
 
-    
+    @Override
+    public double getServiceIntervalKm() {
+        return SERVICE_INTERVAL_KM;
+    }
+
+    @Override
+    protected void restoreOwnState(double fuelLevel, int passengers, double cargo, boolean maintenanceNeeded)
+            throws InvalidOperationException {
+        if (cargo > cargoCapacity) throw new InvalidOperationException("Exceeds cargo capacity.");
+        this.fuelLevel = fuelLevel;
+        this.currentCargo = cargo;
+        this.maintenanceNeeded = maintenanceNeeded;
+    }
 }
@@ -0,0 +1,44 @@
+package vehicles;
+
+// Optional fixed-point bookkeeping for fuel, cargo and mileage, switched on with -Dfleet.fixedPoint=true.
+// When on, every change is worked out on whole units (centilitres, grams, metres) as a long and the
+// result kept as the double nearest that exact amount, so repeated += and -= never drift and a value
+// written with the unit's decimals reads back as the same bits. When off, these are plain double sums.
+public final class FixedPoint {
+    private FixedPoint() {}
+
+    public static final boolean ENABLED = Boolean.getBoolean("fleet.fixedPoint");
+
+    // Units per litre, kilogram and kilometre
+    public static final long FUEL = 100;
+    public static final long CARGO = 1000;
+    public static final long MILEAGE = 1000;
+
+    public static long toUnits(double value, long scale) {
+        return Math.round(value * scale);
+    }
+
+    public static double fromUnits(long units, long scale) {
+        return units / (double) scale;
+    }
+
+    // Decimal places that show every unit: 2 for centilitres, 3 for grams and metres
+    public static int decimals(long scale) {
+        int d = 0;
+        for (long s = scale; s > 1; s /= 10) d++;
+        return d;
+    }
+
+    // The value as it would be stored
+    public static double round(double value, long scale) {
+        return ENABLED ? fromUnits(toUnits(value, scale), scale) : value;
+    }
+
+    public static double add(double a, double b, long scale) {
+        return ENABLED ? fromUnits(toUnits(a, scale) + toUnits(b, scale), scale) : a + b;
+    }
+
+    public static double subtract(double a, double b, long scale) {
+        return ENABLED ? fromUnits(toUnits(a, scale) - toUnits(b, scale), scale) : a - b;
+    }
+}
@@ -1,13 +1,21 @@
 package vehicles;
 
+import events.FleetEventListener;
+import events.FleetEventType;
+import events.FleetEvents;
 import exceptions.InvalidOperationException;
 import exceptions.InsufficientFuelException;
+import interfaces.Maintainable;
+import interfaces.OperationStatus;
 
 public abstract class Vehicle implements Comparable<Vehicle>{
     private String id;
     private String model;
     private double maxSpeed;     
     private double currentMileage;
+    // Mileage at the last performed maintenance, or at creation
+    private double lastServiceMileage;
+    private FleetEventListener listener;
 
     public Vehicle(String id, String model, double maxSpeed,double currentMileage) throws InvalidOperationException {
         if (id == null || id.trim().isEmpty()) {
@@ -16,12 +24,16 @@ public abstract class Vehicle implements Comparable<Vehicle>{
         this.id = id;
         this.model = model;
         this.maxSpeed = maxSpeed;
-        this.currentMileage = currentMileage;
+        this.currentMileage = FixedPoint.round(currentMileage, FixedPoint.MILEAGE);
+        this.lastServiceMileage = this.currentMileage;
     }
 
     public abstract void move(double distance) 
         throws InvalidOperationException, InsufficientFuelException;
 
+    // Same as move() but reports failure as a status instead of throwing
+    public abstract OperationStatus tryMove(double distance);
+
     public abstract double calculateFuelEfficiency();
 
     public abstract double estimateJourneyTime(double distance) 
@@ -48,8 +60,77 @@ public abstract class Vehicle implements Comparable<Vehicle>{
         System.out.println(this.toString());
     }
 
+    // Set by the FleetManager that owns this vehicle so it can follow state changes
+    public void setListener(FleetEventListener listener) {
+        this.listener = listener;
+    }
+
+    public FleetEventListener getListener() {
+        return listener;
+    }
+
+    // Tells the owning manager, then the process-wide sink (console output by default)
+    protected void publish(FleetEventType type, double amount) {
+        FleetEventListener l = listener;
+        if (l != null) l.onEvent(type, this, amount);
+        if (!FleetEvents.inBatch()) FleetEvents.sink().onEvent(type, this, amount);
+    }
+
+    // Also schedules maintenance once the type's service interval has been covered
     protected void updateMileage(double distance) {
-        this.currentMileage += distance;
+        this.currentMileage = FixedPoint.add(currentMileage, distance, FixedPoint.MILEAGE);
+        if (this instanceof Maintainable) {
+            Maintainable m = (Maintainable) this;
+            if (!m.needsMaintenance() && currentMileage - lastServiceMileage >= m.getServiceIntervalKm()) {
+                m.scheduleMaintenance();
+            }
+        }
+    }
+
+    protected void markServiced() {
+        this.lastServiceMileage = currentMileage;
+    }
+
+    public double getLastServiceMileage() {
+        return lastServiceMileage;
+    }
+
+    // Distance driven past the service interval; negative while still inside it
+    public double getServiceOverdueKm() {
+        double interval = this instanceof Maintainable
+                ? ((Maintainable) this).getServiceIntervalKm() : Double.POSITIVE_INFINITY;
+        return currentMileage - lastServiceMileage - interval;
+    }
+
+    // Puts back previously saved state in one step, without the messages and
+    // incremental checks of refuel/boardPassengers/loadCargo. Values a type does not carry are ignored.
+    public void restoreState(double currentMileage, double lastServiceMileage, double fuelLevel, int passengers,
+                             double cargo, boolean maintenanceNeeded) throws InvalidOperationException {
+        if (fuelLevel < 0 || passengers < 0 || cargo < 0 || !(lastServiceMileage >= 0)) {
+            throw new InvalidOperationException("Saved state cannot be negative for " + id);
+        }
+        restoreOwnState(FixedPoint.round(fuelLevel, FixedPoint.FUEL), passengers,
+                FixedPoint.round(cargo, FixedPoint.CARGO), maintenanceNeeded);
+        this.currentMileage = FixedPoint.round(currentMileage, FixedPoint.MILEAGE);
+        this.lastServiceMileage = FixedPoint.round(lastServiceMileage, FixedPoint.MILEAGE);
+    }
+
+    // Same, keeping the mileage of the last service as it is
+    public void restoreState(double currentMileage, double fuelLevel, int passengers, double cargo,
+                             boolean maintenanceNeeded) throws InvalidOperationException {
+        restoreState(currentMileage, lastServiceMileage, fuelLevel, passengers, cargo, maintenanceNeeded);
+    }
+
+    // For formats that keep the service mileage apart from the rest of the state
+    public void restoreServiceMileage(double lastServiceMileage) throws InvalidOperationException {
+        if (!(lastServiceMileage >= 0)) {
+            throw new InvalidOperationException("Saved state cannot be negative for " + id);
+        }
+        this.lastServiceMileage = FixedPoint.round(lastServiceMileage, FixedPoint.MILEAGE);
+    }
+
+    protected void restoreOwnState(double fuelLevel, int passengers, double cargo, boolean maintenanceNeeded)
+            throws InvalidOperationException {
     }
 
     @Override
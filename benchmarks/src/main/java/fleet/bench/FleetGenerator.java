@@ -0,0 +1,214 @@
+package fleet.bench;
+
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import fleet.VehicleCodecs;
+import interfaces.CargoCarrier;
+import interfaces.PassengerCarrier;
+import vehicles.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Produces vehicles following a FleetProfile, and whole fleet files in the saveToFile format.
+// Lines are written through VehicleCodecs, so a generated file is what saveToFile would have
+// written for the same fleet. Values are whole cents, so a load/save round trip is exact.
+//
+//   java -cp benchmarks/target/benchmarks.jar fleet.bench.FleetGenerator <rows> <file>
+//        [--mix urban|logistics|c,t,b,a,s] [--fuel min:max] [--load min:max]
+//        [--malformed fraction] [--seed n] [--prefix id-prefix]
+public final class FleetGenerator {
+
+    private static final String[] MODELS = {
+            "Honda City", "Toyota Corolla", "Volvo FH", "Scania R", "Mercedes Citaro",
+            "Boeing 737", "Airbus A320", "Maersk Triple-E", "Tata Ace", "BMW M5"
+    };
+
+    private final FleetProfile profile;
+    private final Random random;
+    private final int totalWeight;
+
+    FleetGenerator(FleetProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new Random(seed);
+        int t = 0;
+        for (int w : profile.weights) t += w;
+        this.totalWeight = t;
+    }
+
+    Vehicle next(String id) {
+        int pick = random.nextInt(totalWeight);
+        int type = 0;
+        while (pick >= profile.weights[type]) pick -= profile.weights[type++];
+        try {
+            return vehicle(type, id);
+        } catch (InvalidOperationException | OverloadException e) {
+            throw new IllegalStateException("Generated an invalid " + FleetProfile.TYPES[type], e);
+        }
+    }
+
+    // Writes rows lines; returns how many of them were deliberately malformed
+    long writeCsv(Path file, long rows, String idPrefix) throws IOException {
+        long bad = 0;
+        StringBuilder line = new StringBuilder(160);
+        String nl = System.lineSeparator();
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < rows; i++) {
+                line.setLength(0);
+                VehicleCodecs.write(next(idPrefix + i), line);
+                if (profile.malformed > 0 && random.nextDouble() < profile.malformed) {
+                    corrupt(line);
+                    bad++;
+                }
+                w.append(line).append(nl);
+            }
+        }
+        return bad;
+    }
+
+    // The kinds of damage seen in hand-edited or truncated exports. A non-numeric field is
+    // tolerated by the loader (it falls back to the default); the others reject the line.
+    private void corrupt(StringBuilder line) {
+        switch (random.nextInt(4)) {
+            case 0: {
+                // Cut off after the id
+                int second = line.indexOf(",", line.indexOf(",") + 1);
+                line.setLength(second);
+                break;
+            }
+            case 1: {
+                // Unknown vehicle type
+                line.replace(0, line.indexOf(","), "Hovercraft");
+                break;
+            }
+            case 2: {
+                // Non-numeric max speed
+                int start = nthComma(line, 3) + 1;
+                line.replace(start, line.indexOf(",", start), "fast");
+                break;
+            }
+            default: {
+                // More passengers or cargo than the vehicle holds
+                line.setLength(0);
+                line.append("Car,BAD").append(random.nextInt(1_000_000)).append(",Overloaded,150.00,0.00,4,10.00,5,99,false");
+                break;
+            }
+        }
+    }
+
+    private static int nthComma(CharSequence s, int n) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == ',' && --n == 0) return i;
+        }
+        return -1;
+    }
+
+    private Vehicle vehicle(int type, String id) throws InvalidOperationException, OverloadException {
+        Random r = random;
+        String model = MODELS[r.nextInt(MODELS.length)];
+        double mileage = cents(r.nextInt(200_000));
+        double fuel = cents(profile.fuelMin + r.nextDouble() * (profile.fuelMax - profile.fuelMin));
+        double load = profile.loadMin + r.nextDouble() * (profile.loadMax - profile.loadMin);
+        switch (type) {
+            case 0: {
+                Car c = new Car(id, model, 120 + r.nextInt(130), mileage, 4);
+                if (fuel > 0) c.refuel(fuel);
+                board(c, load);
+                return c;
+            }
+            case 1: {
+                Truck t = new Truck(id, model, 80 + r.nextInt(60), mileage, 6 + 2 * r.nextInt(4));
+                if (fuel > 0) t.refuel(fuel);
+                load(t, load);
+                return t;
+            }
+            case 2: {
+                Bus b = new Bus(id, model, 70 + r.nextInt(50), mileage, 6);
+                if (fuel > 0) b.refuel(fuel);
+                board(b, load);
+                load(b, load);
+                return b;
+            }
+            case 3: {
+                Airplane a = new Airplane(id, model, 700 + r.nextInt(300), mileage, 9000 + r.nextInt(3000));
+                if (fuel > 0) a.refuel(fuel);
+                board(a, load);
+                load(a, load);
+                return a;
+            }
+            default: {
+                boolean sail = r.nextInt(10) == 0;
+                CargoShip s = new CargoShip(id, model, 20 + r.nextInt(25), mileage, sail);
+                if (!sail && fuel > 0) s.refuel(fuel);
+                load(s, load);
+                return s;
+            }
+        }
+    }
+
+    private static void board(PassengerCarrier p, double load) throws InvalidOperationException, OverloadException {
+        int n = (int) (p.getPassengerCapacity() * load);
+        if (n > 0) p.boardPassengers(n);
+    }
+
+    private static void load(CargoCarrier c, double load) throws OverloadException {
+        double kg = Math.floor(c.getCargoCapacity() * load * 100) / 100;
+        if (kg > 0) c.loadCargo(kg);
+    }
+
+    private static double cents(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: FleetGenerator <rows> <file> [--mix urban|logistics|c,t,b,a,s] [--fuel min:max]"
+                    + " [--load min:max] [--malformed fraction] [--seed n] [--prefix id-prefix]");
+            System.exit(2);
+        }
+        long rows = Long.parseLong(args[0]);
+        Path file = Paths.get(args[1]);
+        String mix = Fleets.LOGISTICS;
+        String fuel = null;
+        String load = null;
+        double malformed = 0;
+        long seed = 42;
+        String prefix = "V";
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--mix": mix = value; break;
+                case "--fuel": fuel = value; break;
+                case "--load": load = value; break;
+                case "--malformed": malformed = Double.parseDouble(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--prefix": prefix = value; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        FleetProfile profile = FleetProfile.of(mix).withMalformed(malformed);
+        if (fuel != null) profile = profile.withFuel(low(fuel), high(fuel));
+        if (load != null) profile = profile.withLoad(low(load), high(load));
+        // Vehicle events would otherwise print a line per refuel and boarding
+        PrintStream out = System.out;
+        Quiet.install();
+        long start = System.nanoTime();
+        long bad = new FleetGenerator(profile, seed).writeCsv(file, rows, prefix);
+        double secs = (System.nanoTime() - start) / 1e9;
+        out.printf("Wrote %d vehicles (%d malformed) to %s in %.2f s%n", rows, bad, file, secs);
+    }
+
+    private static double low(String range) {
+        return Double.parseDouble(range.substring(0, range.indexOf(':')));
+    }
+
+    private static double high(String range) {
+        return Double.parseDouble(range.substring(range.indexOf(':') + 1));
+    }
+}
@@ -0,0 +1,61 @@
+package fleet.bench;
+
+// What a generated fleet looks like: a weight per type in the order Car, Truck, Bus, Airplane,
+// CargoShip, the fuel range in liters, the range of passenger and cargo load as a fraction
+// of capacity, and the fraction of lines written malformed.
+final class FleetProfile {
+
+    static final String[] TYPES = {"Car", "Truck", "Bus", "Airplane", "CargoShip"};
+
+    final int[] weights;
+    final double fuelMin;
+    final double fuelMax;
+    final double loadMin;
+    final double loadMax;
+    final double malformed;
+
+    FleetProfile(int[] weights, double fuelMin, double fuelMax, double loadMin, double loadMax, double malformed) {
+        if (weights.length != TYPES.length) throw new IllegalArgumentException("Expected " + TYPES.length + " type weights");
+        int total = 0;
+        for (int w : weights) {
+            if (w < 0) throw new IllegalArgumentException("Negative type weight");
+            total += w;
+        }
+        if (total == 0) throw new IllegalArgumentException("All type weights are zero");
+        if (fuelMin < 0 || fuelMax < fuelMin) throw new IllegalArgumentException("Bad fuel range " + fuelMin + ".." + fuelMax);
+        if (loadMin < 0 || loadMax > 1 || loadMax < loadMin) throw new IllegalArgumentException("Bad load range " + loadMin + ".." + loadMax);
+        if (malformed < 0 || malformed > 1) throw new IllegalArgumentException("Bad malformed fraction " + malformed);
+        this.weights = weights.clone();
+        this.fuelMin = fuelMin;
+        this.fuelMax = fuelMax;
+        this.loadMin = loadMin;
+        this.loadMax = loadMax;
+        this.malformed = malformed;
+    }
+
+    // "urban", "logistics" or five comma separated weights
+    static FleetProfile of(String mix) {
+        switch (mix) {
+            case Fleets.URBAN: return new FleetProfile(new int[] {60, 15, 25, 0, 0}, 5, 60, 0.0, 0.8, 0);
+            case Fleets.LOGISTICS: return new FleetProfile(new int[] {20, 45, 10, 10, 15}, 50, 5000, 0.2, 1.0, 0);
+            default: {
+                String[] parts = mix.split(",");
+                int[] w = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) w[i] = Integer.parseInt(parts[i].trim());
+                return new FleetProfile(w, 5, 500, 0.0, 1.0, 0);
+            }
+        }
+    }
+
+    FleetProfile withFuel(double min, double max) {
+        return new FleetProfile(weights, min, max, loadMin, loadMax, malformed);
+    }
+
+    FleetProfile withLoad(double min, double max) {
+        return new FleetProfile(weights, fuelMin, fuelMax, min, max, malformed);
+    }
+
+    FleetProfile withMalformed(double fraction) {
+        return new FleetProfile(weights, fuelMin, fuelMax, loadMin, loadMax, fraction);
+    }
+}
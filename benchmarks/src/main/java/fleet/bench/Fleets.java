@@ -0,0 +1,35 @@
+package fleet.bench;
+
+import exceptions.InvalidOperationException;
+import fleet.FleetManager;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic in-memory fleets for the benchmarks, in one of the FleetProfile mixes
+final class Fleets {
+
+    static final String URBAN = "urban";
+    static final String LOGISTICS = "logistics";
+
+    private Fleets() {}
+
+    static List<Vehicle> generate(int size, String mix, String idPrefix, long seed) {
+        // Enough fuel that repeated benchmark journeys never run dry
+        FleetGenerator gen = new FleetGenerator(FleetProfile.of(mix).withFuel(1e9, 1e9), seed);
+        List<Vehicle> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(gen.next(idPrefix + i));
+        return out;
+    }
+
+    static FleetManager manager(List<Vehicle> vehicles) {
+        FleetManager fm = new FleetManager();
+        try {
+            for (Vehicle v : vehicles) fm.addVehicle(v);
+        } catch (InvalidOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return fm;
+    }
+}
@@ -0,0 +1,239 @@
+package fleet.bench;
+
+import fleet.FleetManager;
+import fleet.LatencyHistogram;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Headless load test: replays a weighted mix of fleet operations against one FleetManager
+// from one or more threads and reports throughput and latency percentiles per operation.
+// Each thread works on its own share of the vehicle IDs, so removes and moves always hit
+// a vehicle that exists.
+//
+//   java -cp benchmarks/target/benchmarks.jar fleet.bench.LoadDriver
+//        [--vehicles n | --file fleet.csv] [--mix urban|logistics|c,t,b,a,s] [--ops n]
+//        [--warmup n] [--threads n] [--seed n]
+//        [--workload add=2500,remove=2000,move=5000,journeys=3,report=400,search=95,save=2]
+public final class LoadDriver {
+
+    enum Op { ADD, REMOVE, MOVE, JOURNEYS, REPORT, SEARCH, SAVE }
+
+    private final FleetManager fleet;
+    private final FleetProfile profile;
+    private final int[] weights;
+    private final int totalWeight;
+    private final Map<Op, LatencyHistogram> latency = new EnumMap<>(Op.class);
+    private final Map<Op, LongAdder> failures = new EnumMap<>(Op.class);
+    private final Path scratch;
+
+    LoadDriver(FleetManager fleet, FleetProfile profile, int[] weights, Path scratch) {
+        this.fleet = fleet;
+        this.profile = profile;
+        this.weights = weights;
+        int t = 0;
+        for (int w : weights) t += w;
+        if (t == 0) throw new IllegalArgumentException("Workload has no operations");
+        this.totalWeight = t;
+        this.scratch = scratch;
+        for (Op op : Op.values()) {
+            latency.put(op, new LatencyHistogram());
+            failures.put(op, new LongAdder());
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int id;
+        private final Random random;
+        private final FleetGenerator generator;
+        private final List<String> ids;
+        private final long warmup;
+        private final long ops;
+        private final CyclicBarrier start;
+        private long added;
+        private volatile Throwable error;
+
+        Worker(int id, long seed, List<String> ids, long warmup, long ops, CyclicBarrier start) {
+            this.id = id;
+            this.random = new Random(seed);
+            this.generator = new FleetGenerator(profile, seed);
+            this.ids = ids;
+            this.warmup = warmup;
+            this.ops = ops;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (long i = 0; i < warmup; i++) step(false);
+                start.await();
+                for (long i = 0; i < ops; i++) step(true);
+            } catch (Throwable t) {
+                error = t;
+                start.reset();
+            }
+        }
+
+        private void step(boolean record) throws IOException {
+            Op op = pick();
+            if (op == Op.REMOVE && ids.isEmpty()) op = Op.ADD;
+            if (op == Op.MOVE && ids.isEmpty()) op = Op.ADD;
+            // Anything that is not the operation itself happens before the clock starts
+            Vehicle fresh = op == Op.ADD ? generator.next("L" + id + "-" + added++) : null;
+            int slot = ids.isEmpty() ? -1 : random.nextInt(ids.size());
+            String target = slot < 0 ? null : ids.get(slot);
+            double distance = 1 + random.nextInt(100);
+            boolean ok = true;
+            long t0 = System.nanoTime();
+            try {
+                switch (op) {
+                    case ADD: fleet.addVehicle(fresh); break;
+                    case REMOVE: fleet.removeVehicle(target); break;
+                    case MOVE: fleet.move(target, distance); break;
+                    case JOURNEYS: fleet.startAllJourneys(distance); break;
+                    case REPORT: fleet.generateReport(); break;
+                    case SEARCH: fleet.searchByType(Truck.class); break;
+                    case SAVE: fleet.saveToFile(scratch.resolve("save-" + id + ".csv").toString()); break;
+                }
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - t0;
+            if (ok && op == Op.ADD) ids.add(fresh.getId());
+            if (ok && op == Op.REMOVE) {
+                ids.set(slot, ids.get(ids.size() - 1));
+                ids.remove(ids.size() - 1);
+            }
+            if (record) {
+                latency.get(op).record(elapsed);
+                if (!ok) failures.get(op).increment();
+            }
+        }
+
+        private Op pick() {
+            int r = random.nextInt(totalWeight);
+            int i = 0;
+            while (r >= weights[i]) r -= weights[i++];
+            return Op.values()[i];
+        }
+    }
+
+    // Runs the workload and returns the wall-clock seconds of the measured phase
+    double run(int threads, long warmup, long ops, long seed) throws Exception {
+        List<List<String>> shares = new ArrayList<>();
+        for (int t = 0; t < threads; t++) shares.add(new ArrayList<>());
+        int n = 0;
+        for (Vehicle v : fleet.listAll()) shares.get(n++ % threads).add(v.getId());
+
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long share = ops / threads + (t < ops % threads ? 1 : 0);
+            Worker w = new Worker(t, seed + 31L * t, shares.get(t), warmup / threads, share, start);
+            workers.add(w);
+            Thread th = new Thread(w, "load-driver-" + t);
+            running.add(th);
+            th.start();
+        }
+        start.await();
+        long t0 = System.nanoTime();
+        for (Thread th : running) th.join();
+        long elapsed = System.nanoTime() - t0;
+        for (Worker w : workers) {
+            if (w.error != null) throw new IllegalStateException("Worker " + w.id + " failed", w.error);
+        }
+        return elapsed / 1e9;
+    }
+
+    void report(PrintStream out, double seconds) {
+        long total = 0;
+        out.printf("%-9s %10s %10s %10s %10s %10s %10s %10s %10s %9s%n",
+                "operation", "count", "ops/s", "mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "failures");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency.get(op);
+            long count = h.count();
+            if (count == 0) continue;
+            total += count;
+            out.printf("%-9s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %9d%n",
+                    op.name().toLowerCase(), count, count / seconds, h.mean() / 1e3,
+                    h.percentile(50) / 1e3, h.percentile(90) / 1e3, h.percentile(99) / 1e3,
+                    h.percentile(99.9) / 1e3, h.max() / 1e3, failures.get(op).sum());
+        }
+        out.printf("%d operations in %.2f s: %.0f ops/s, fleet size now %d%n", total, seconds, total / seconds, fleet.size());
+    }
+
+    static int[] parseWorkload(String spec) {
+        int[] w = new int[Op.values().length];
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad workload entry " + part);
+            w[Op.valueOf(kv[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(kv[1].trim());
+        }
+        return w;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int vehicles = 100_000;
+        String file = null;
+        String mix = Fleets.LOGISTICS;
+        long ops = 1_000_000;
+        long warmup = -1;
+        int threads = 1;
+        long seed = 42;
+        String workload = "add=2500,remove=2000,move=5000,journeys=3,report=400,search=95,save=2";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--vehicles": vehicles = Integer.parseInt(value); break;
+                case "--file": file = value; break;
+                case "--mix": mix = value; break;
+                case "--ops": ops = Long.parseLong(value); break;
+                case "--warmup": warmup = Long.parseLong(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--workload": workload = value; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (warmup < 0) warmup = ops / 10;
+
+        PrintStream out = System.out;
+        Quiet.install();
+        FleetProfile profile = FleetProfile.of(mix);
+        FleetManager fleet = new FleetManager(threads > 1);
+        long t0 = System.nanoTime();
+        if (file != null) {
+            fleet.loadFromFile(file);
+        } else {
+            FleetGenerator gen = new FleetGenerator(profile, seed);
+            for (int i = 0; i < vehicles; i++) fleet.addVehicle(gen.next("V" + i));
+        }
+        out.printf("Fleet of %d vehicles ready in %.2f s%n", fleet.size(), (System.nanoTime() - t0) / 1e9);
+
+        Path scratch = Files.createTempDirectory("fleet-load");
+        try {
+            LoadDriver driver = new LoadDriver(fleet, profile, parseWorkload(workload), scratch);
+            double seconds = driver.run(threads, warmup, ops, seed + 1);
+            driver.report(out, seconds);
+        } finally {
+            try (Stream<Path> files = Files.list(scratch)) {
+                for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(scratch);
+        }
+    }
+}
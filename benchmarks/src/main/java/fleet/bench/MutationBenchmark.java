@@ -0,0 +1,85 @@
+package fleet.bench;
+
+import exceptions.InvalidOperationException;
+import fleet.FleetManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import vehicles.Vehicle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// addVehicle and removeVehicle on a fleet of the given size. Each invocation adds (or removes)
+// a batch of BATCH vehicles; the per-invocation setup puts the fleet back to its base size,
+// outside the measurement.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MutationBenchmark {
+
+    static final int BATCH = 1000;
+
+    @State(Scope.Thread)
+    public abstract static class Base {
+        @Param({"1000", "100000", "1000000"})
+        int size;
+
+        @Param({Fleets.URBAN, Fleets.LOGISTICS})
+        String mix;
+
+        FleetManager fleet;
+        List<Vehicle> batch;
+        boolean batchPresent;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Quiet.install();
+            fleet = Fleets.manager(Fleets.generate(size, mix, "V", 42));
+            batch = Fleets.generate(BATCH, mix, "X", 7);
+        }
+
+        void addBatch() throws InvalidOperationException {
+            if (batchPresent) return;
+            for (Vehicle v : batch) fleet.addVehicle(v);
+            batchPresent = true;
+        }
+
+        void removeBatch() throws InvalidOperationException {
+            if (!batchPresent) return;
+            for (Vehicle v : batch) fleet.removeVehicle(v.getId());
+            batchPresent = false;
+        }
+    }
+
+    public static class AddState extends Base {
+        @Setup(Level.Invocation)
+        public void reset() throws InvalidOperationException {
+            removeBatch();
+        }
+    }
+
+    public static class RemoveState extends Base {
+        @Setup(Level.Invocation)
+        public void reset() throws InvalidOperationException {
+            addBatch();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void addVehicle(AddState s, Blackhole bh) throws InvalidOperationException {
+        for (Vehicle v : s.batch) s.fleet.addVehicle(v);
+        s.batchPresent = true;
+        bh.consume(s.fleet);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeVehicle(RemoveState s, Blackhole bh) throws InvalidOperationException {
+        for (Vehicle v : s.batch) s.fleet.removeVehicle(v.getId());
+        s.batchPresent = false;
+        bh.consume(s.fleet);
+    }
+}
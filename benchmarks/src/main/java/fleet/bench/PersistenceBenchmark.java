@@ -0,0 +1,66 @@
+package fleet.bench;
+
+import fleet.FleetManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// saveToFile and loadFromFile round trips through the CSV format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({Fleets.URBAN, Fleets.LOGISTICS})
+    String mix;
+
+    FleetManager fleet;
+    Path dir;
+    String saved;
+    String scratch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Quiet.install();
+        fleet = Fleets.manager(Fleets.generate(size, mix, "V", 42));
+        dir = Files.createTempDirectory("fleet-bench");
+        saved = dir.resolve("fleet.csv").toString();
+        scratch = dir.resolve("scratch.csv").toString();
+        fleet.saveToFile(saved);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(saved));
+        Files.deleteIfExists(Path.of(scratch));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void saveToFile() {
+        fleet.saveToFile(scratch);
+    }
+
+    @Benchmark
+    public FleetManager loadFromFile() {
+        FleetManager fm = new FleetManager();
+        fm.loadFromFile(saved);
+        return fm;
+    }
+
+    @Benchmark
+    public FleetManager loadFromFileParallel() {
+        FleetManager fm = new FleetManager();
+        fm.loadFromFileParallel(saved);
+        return fm;
+    }
+}
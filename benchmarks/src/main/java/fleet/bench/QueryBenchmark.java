@@ -0,0 +1,69 @@
+package fleet.bench;
+
+import fleet.FleetManager;
+import fleet.JourneyBatchResult;
+import org.openjdk.jmh.annotations.*;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Read paths and fleet-wide journeys against a fleet that stays the same size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({Fleets.URBAN, Fleets.LOGISTICS})
+    String mix;
+
+    FleetManager fleet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Quiet.install();
+        fleet = Fleets.manager(Fleets.generate(size, mix, "V", 42));
+    }
+
+    @Benchmark
+    public String generateReport() {
+        return fleet.generateReport();
+    }
+
+    @Benchmark
+    public List<Vehicle> searchByType() {
+        return fleet.searchByType(Truck.class);
+    }
+
+    @Benchmark
+    public List<Vehicle> getFleetSortedBySpeed() {
+        return fleet.getFleetSortedBySpeed();
+    }
+
+    @Benchmark
+    public List<Vehicle> getFleetSortedByModel() {
+        return fleet.getFleetSortedByModel();
+    }
+
+    @Benchmark
+    public List<Vehicle> getFleetSortedByEfficiency() {
+        return fleet.getFleetSortedByEfficiency();
+    }
+
+    @Benchmark
+    public void startAllJourneys() {
+        fleet.startAllJourneys(1.0);
+    }
+
+    @Benchmark
+    public JourneyBatchResult startAllJourneysParallel() {
+        return fleet.startAllJourneysParallel(1.0);
+    }
+}
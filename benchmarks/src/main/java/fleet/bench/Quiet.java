@@ -0,0 +1,18 @@
+package fleet.bench;
+
+import events.FleetEvents;
+import events.NoOpEventSink;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// The manager and vehicles report to the console; the benchmarks measure the work, not the printing
+final class Quiet {
+    private Quiet() {}
+
+    static void install() {
+        FleetEvents.setSink(NoOpEventSink.INSTANCE);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}